@@ -0,0 +1,79 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+public final class BenchmarkImages {
+
+    private static final String SYNTHETIC_PREFIX = "synthetic-"; //NON-NLS
+
+    private BenchmarkImages() {
+    }
+
+    // bundled resource or generated JPEG, e.g. "synthetic-6000x4000.jpg"
+    public static byte[] load(final String name) throws IOException {
+        return name.startsWith(SYNTHETIC_PREFIX) ? createSyntheticJpeg(name) : readResource(name);
+    }
+
+    public static BufferedImage decode(final String name) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(load(name)));
+    }
+
+    private static byte[] readResource(final String name) throws IOException {
+        try (final InputStream inputStream = Thread.currentThread().getContextClassLoader().getResourceAsStream(name);
+             final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            final byte[] buffer = new byte[8192];
+            int count;
+            while ((count = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, count);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static byte[] createSyntheticJpeg(final String name) throws IOException {
+        final String size = name.substring(SYNTHETIC_PREFIX.length(), name.lastIndexOf('.'));
+        final String[] dimensions = size.split("x"); //NON-NLS
+        final int width = Integer.parseInt(dimensions[0]);
+        final int height = Integer.parseInt(dimensions[1]);
+
+        // a gradient with some noise compresses and decodes roughly like a photo
+        final Random random = new Random(42);
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int red = (x * 255 / width + random.nextInt(16)) & 0xFF;
+                final int green = (y * 255 / height + random.nextInt(16)) & 0xFF;
+                final int blue = ((x + y) * 127 / (width + height) + random.nextInt(16)) & 0xFF;
+                image.setRGB(x, y, red << 16 | green << 8 | blue);
+            }
+        }
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", outputStream); //NON-NLS
+        return outputStream.toByteArray();
+    }
+
+}
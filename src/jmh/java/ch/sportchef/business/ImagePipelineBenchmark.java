@@ -0,0 +1,85 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ImagePipelineBenchmark {
+
+    private static final int IMAGE_WIDTH = 350;
+    private static final int IMAGE_HEIGHT = 200;
+
+    @Param({"default-event-image-001.png", "default-event-image-007.png", //NON-NLS
+            "synthetic-3000x2000.jpg", "synthetic-6000x4000.jpg"}) //NON-NLS
+    private String image;
+
+    private BufferedImage inputImage;
+    private BufferedImage outputImage;
+
+    @Setup(Level.Trial)
+    public void loadImage() throws IOException {
+        inputImage = BenchmarkImages.decode(image);
+        outputImage = ImageResizer.resizeAndCrop(inputImage, IMAGE_WIDTH, IMAGE_HEIGHT);
+    }
+
+    @Benchmark
+    public BufferedImage resizeAndCrop() {
+        return ImageResizer.resizeAndCrop(inputImage, IMAGE_WIDTH, IMAGE_HEIGHT);
+    }
+
+    @Benchmark
+    public String averageColorOfInput() {
+        return AverageColorCalculator.getAverageColorAsHex(inputImage);
+    }
+
+    @Benchmark
+    public String averageColorOfOutput() {
+        return AverageColorCalculator.getAverageColorAsHex(outputImage);
+    }
+
+    @Benchmark
+    public byte[] encodePng() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(outputImage, "png", outputStream); //NON-NLS
+        return outputStream.toByteArray();
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ImageResizerBenchmark {
+
+    private static final int IMAGE_WIDTH = 350;
+    private static final int IMAGE_HEIGHT = 200;
+
+    @Param({"700x400", "1920x1080", "6000x4000"}) //NON-NLS
+    private String size;
+
+    private BufferedImage image;
+    private int scaleWidth;
+    private int scaleHeight;
+
+    @Setup(Level.Trial)
+    public void createImage() {
+        final String[] dimensions = size.split("x"); //NON-NLS
+        final int width = Integer.parseInt(dimensions[0]);
+        final int height = Integer.parseInt(dimensions[1]);
+        final Random random = new Random(42);
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+
+        // same scale calculation as in ImageResizer.resizeAndCrop
+        if (IMAGE_WIDTH / (double) IMAGE_HEIGHT > width / (double) height) {
+            scaleWidth = IMAGE_WIDTH;
+            scaleHeight = height * IMAGE_WIDTH / width;
+        } else {
+            scaleWidth = width * IMAGE_HEIGHT / height;
+            scaleHeight = IMAGE_HEIGHT;
+        }
+    }
+
+    @Benchmark
+    public BufferedImage singleStep() {
+        // the resize implementation before the multi-step engine was introduced
+        final BufferedImage outputImage = new BufferedImage(scaleWidth, scaleHeight, image.getType());
+        final Graphics2D g2d = outputImage.createGraphics();
+        g2d.drawImage(image, 0, 0, scaleWidth, scaleHeight, null);
+        g2d.dispose();
+        return outputImage;
+    }
+
+    @Benchmark
+    public BufferedImage fast() {
+        return ImageResizer.resize(image, scaleWidth, scaleHeight, ImageResizer.Mode.FAST);
+    }
+
+    @Benchmark
+    public BufferedImage balanced() {
+        return ImageResizer.resize(image, scaleWidth, scaleHeight, ImageResizer.Mode.BALANCED);
+    }
+
+    @Benchmark
+    public BufferedImage quality() {
+        return ImageResizer.resize(image, scaleWidth, scaleHeight, ImageResizer.Mode.QUALITY);
+    }
+
+}
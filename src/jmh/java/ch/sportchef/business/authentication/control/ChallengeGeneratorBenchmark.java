@@ -0,0 +1,71 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Threads(32)
+@Fork(1)
+public class ChallengeGeneratorBenchmark {
+
+    private static final String CHALLENGE_CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int CHALLENGE_LENGTH = 10;
+
+    private ChallengeGenerator challengeGenerator;
+
+    @Setup
+    public void setupGenerator() {
+        challengeGenerator = new ChallengeGenerator();
+    }
+
+    @Benchmark
+    public String generateWithNewSecureRandom() {
+        // how challenges were generated before, a new generator for every challenge
+        final StringBuilder challengeBuilder = new StringBuilder(CHALLENGE_LENGTH);
+        final Random random = new SecureRandom();
+        while (challengeBuilder.length() < CHALLENGE_LENGTH) {
+            challengeBuilder.append(CHALLENGE_CHARACTERS.charAt(random.nextInt(CHALLENGE_CHARACTERS.length())));
+        }
+        return challengeBuilder.toString();
+    }
+
+    @Benchmark
+    public String generateWithSharedGenerator() {
+        return challengeGenerator.generate(CHALLENGE_LENGTH);
+    }
+
+}
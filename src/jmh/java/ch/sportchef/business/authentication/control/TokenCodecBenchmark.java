@@ -0,0 +1,104 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import ch.sportchef.business.configuration.control.ConfigurationService;
+import ch.sportchef.business.configuration.entity.Configuration;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TokenCodecBenchmark {
+
+    private static final String TOKEN_SIGNING_KEY = "c3BvcnRjaGVmLWJlbmNobWFyay1zaWduaW5nLWtleQ=="; //NON-NLS
+
+    private ConfigurationService configurationService;
+    private TokenCodec tokenCodec;
+    private Claims claims;
+    private String token;
+
+    @Setup
+    public void setupCodec() {
+        final Properties properties = new Properties();
+        properties.setProperty("token.signing.key", TOKEN_SIGNING_KEY); //NON-NLS
+        final Configuration configuration = new Configuration(properties);
+        configurationService = new ConfigurationService(null, new HealthCheckRegistry()) {
+            @Override
+            public Configuration getConfiguration() {
+                return configuration;
+            }
+        };
+        tokenCodec = new TokenCodec(configurationService);
+
+        claims = Jwts.claims();
+        claims.setIssuedAt(new Date());
+        claims.setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+        claims.put("email", "john.doe@sportchef.ch"); //NON-NLS
+        token = tokenCodec.createToken(claims);
+    }
+
+    @Benchmark
+    public String issueWithStringKey() {
+        // how tokens were issued before, the key is decoded for every token
+        return Jwts.builder()
+                .setClaims(claims)
+                .signWith(SignatureAlgorithm.HS512, configurationService.getConfiguration().getTokenSigningKey())
+                .compact();
+    }
+
+    @Benchmark
+    public String issueWithPrecomputedKey() {
+        return tokenCodec.createToken(claims);
+    }
+
+    @Benchmark
+    public Claims verifyWithStringKey() {
+        // how tokens were verified before, a new parser and key for every token
+        return Jwts.parser()
+                .setSigningKey(configurationService.getConfiguration().getTokenSigningKey())
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims verifyWithPrecomputedKey() {
+        return tokenCodec.parseToken(token);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import ch.sportchef.business.BenchmarkImages;
+import ch.sportchef.business.configuration.control.ConfigurationService;
+import ch.sportchef.business.configuration.entity.Configuration;
+import ch.sportchef.business.event.entity.Event;
+import ch.sportchef.business.event.entity.EventImage;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EventImageServiceBenchmark {
+
+    @Param({"default-event-image-001.png", "synthetic-3000x2000.jpg", "synthetic-6000x4000.jpg"}) //NON-NLS
+    private String image;
+
+    private String realUserHome;
+    private EventService eventService;
+    private EventImageService eventImageService;
+    private Long eventId;
+    private byte[] imageBytes;
+
+    @Setup(Level.Trial)
+    public void setupServices() throws IOException {
+        // keep images and journals of the benchmark away from real data
+        realUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", Files.createTempDirectory("sportchef-jmh-").toString()); //NON-NLS
+
+        final HealthCheckRegistry healthCheckRegistry = new HealthCheckRegistry();
+        eventService = new EventService(healthCheckRegistry);
+        eventService.setupResources();
+        eventId = eventService.create(Event.builder().title("Benchmark").build()).getEventId(); //NON-NLS
+
+        final Configuration configuration = new Configuration(new Properties());
+        final ConfigurationService configurationService = new ConfigurationService(null, healthCheckRegistry) {
+            @Override
+            public Configuration getConfiguration() {
+                return configuration;
+            }
+        };
+        eventImageService = new EventImageService(eventService, configurationService, new MetricRegistry());
+        eventImageService.setupResources();
+
+        imageBytes = BenchmarkImages.load(image);
+        eventImageService.uploadImage(eventId, imageBytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanupServices() {
+        eventImageService.cleanupResources();
+        eventService.cleanupResources();
+        System.setProperty("user.home", realUserHome);
+    }
+
+    @Benchmark
+    public void uploadImage() throws IOException {
+        // decode, resize, encode as PNG, write the file and update the event
+        eventImageService.uploadImage(eventId, imageBytes);
+    }
+
+    @Benchmark
+    public EventImage getImage() throws IOException {
+        return eventImageService.getImage(eventId);
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import ch.sportchef.business.event.entity.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EventRepositoryBenchmark {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2017, 1, 1);
+
+    @Param({"1000", "10000", "100000"}) //NON-NLS
+    private int eventCount;
+
+    private EventRepository eventRepository;
+    private Event event;
+    private long createCount;
+
+    static Event createEvent(final long number) {
+        return Event.builder()
+                .title(String.format("Event %d", number)) //NON-NLS
+                .location("Zurich") //NON-NLS
+                .date(FIRST_DATE.plusDays(number % 3650))
+                .time(LocalTime.of((int) (number % 24), 0))
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void populateRepository() {
+        eventRepository = new EventRepository();
+        for (long number = 1; number <= eventCount; number++) {
+            event = eventRepository.create(createEvent(number));
+        }
+        createCount = eventCount;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Event create() {
+        return eventRepository.create(createEvent(++createCount));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Event update() {
+        // moving the event to another date also updates the time index
+        event = eventRepository.update(event.toBuilder().date(FIRST_DATE.plusDays(createCount++ % 3650)).build());
+        return event;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<Event> findByEventId() {
+        return eventRepository.findByEventId(ThreadLocalRandom.current().nextLong(1, eventCount + 1));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Event> findAll() {
+        return eventRepository.findAll();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Event> findAllPage() {
+        final LocalDate from = FIRST_DATE.plusDays(ThreadLocalRandom.current().nextInt(3650));
+        return eventRepository.findAll(from, null, null, 50);
+    }
+
+}
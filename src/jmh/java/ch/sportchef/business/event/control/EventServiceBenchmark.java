@@ -0,0 +1,98 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import ch.sportchef.business.event.entity.Event;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EventServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"}) //NON-NLS
+    private int eventCount;
+
+    private String realUserHome;
+    private EventService eventService;
+    private Event event;
+    private long createCount;
+
+    @Setup(Level.Trial)
+    public void setupService() throws IOException {
+        // the journal of the persistence controller is written to a temporary user home
+        realUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", Files.createTempDirectory("sportchef-jmh-").toString()); //NON-NLS
+
+        eventService = new EventService(new HealthCheckRegistry());
+        eventService.setupResources();
+        for (long number = 1; number <= eventCount; number++) {
+            event = eventService.create(EventRepositoryBenchmark.createEvent(number));
+        }
+        createCount = eventCount;
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanupService() {
+        eventService.cleanupResources();
+        System.setProperty("user.home", realUserHome);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Event create() {
+        return eventService.create(EventRepositoryBenchmark.createEvent(++createCount));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Event update() {
+        final String title = String.format("Event %d", createCount++); //NON-NLS
+        event = eventService.update(event.toBuilder().title(title).build());
+        return event;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Event> findAll() {
+        return eventService.findAll();
+    }
+
+}
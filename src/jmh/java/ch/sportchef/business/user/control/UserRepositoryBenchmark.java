@@ -0,0 +1,104 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.user.control;
+
+import ch.sportchef.business.authentication.entity.Role;
+import ch.sportchef.business.user.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000"}) //NON-NLS
+    private int userCount;
+
+    private String[] emails;
+    private UserRepository userRepository;
+    private User user;
+    private long createCount;
+
+    static User createUser(final long number) {
+        return User.builder()
+                .firstName(String.format("First%d", number)) //NON-NLS
+                .lastName(String.format("Last%d", number)) //NON-NLS
+                .phone("+41 79 555 00 00") //NON-NLS
+                .email(String.format("user%d@sportchef.ch", number)) //NON-NLS
+                .role(Role.USER)
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void populateRepository() {
+        userRepository = new UserRepository();
+        emails = new String[userCount];
+        for (int number = 1; number <= userCount; number++) {
+            user = userRepository.create(createUser(number));
+            emails[number - 1] = user.getEmail();
+        }
+        createCount = userCount;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public User create() {
+        return userRepository.create(createUser(++createCount));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public User update() {
+        user = userRepository.update(user.toBuilder().phone(Long.toString(createCount++)).build());
+        return user;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmail(emails[ThreadLocalRandom.current().nextInt(userCount)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<User> findAll() {
+        return userRepository.findAll();
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.user.control;
+
+import ch.sportchef.business.user.entity.User;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"}) //NON-NLS
+    private int userCount;
+
+    private String realUserHome;
+    private UserService userService;
+    private String[] emails;
+    private User user;
+    private long createCount;
+
+    @Setup(Level.Trial)
+    public void setupService() throws IOException {
+        // the journal of the persistence controller is written to a temporary user home
+        realUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", Files.createTempDirectory("sportchef-jmh-").toString()); //NON-NLS
+
+        userService = new UserService(new HealthCheckRegistry());
+        userService.setupResources();
+        emails = new String[userCount];
+        for (int number = 1; number <= userCount; number++) {
+            user = userService.create(UserRepositoryBenchmark.createUser(number));
+            emails[number - 1] = user.getEmail();
+        }
+        createCount = userCount;
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanupService() {
+        userService.cleanupResources();
+        System.setProperty("user.home", realUserHome);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public User create() {
+        return userService.create(UserRepositoryBenchmark.createUser(++createCount));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public User update() {
+        user = userService.update(user.toBuilder().phone(Long.toString(createCount++)).build());
+        return user;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<User> findByEmail() {
+        return userService.findByEmail(emails[ThreadLocalRandom.current().nextInt(userCount)]);
+    }
+
+}
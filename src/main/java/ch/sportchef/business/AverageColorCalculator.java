@@ -22,60 +22,223 @@ import lombok.experimental.UtilityClass;
 import javax.validation.constraints.NotNull;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 @UtilityClass
 public class AverageColorCalculator {
 
     private static final int THRESHOLD_COLOR = 600;
+    private static final long PARALLEL_THRESHOLD = 1_000_000L;
+    private static final int BAND_SIZE = 256 * 1024;
+
+    @FunctionalInterface
+    private interface BandSum {
+        long[] sum(int startRow, int endRow);
+    }
+
+    private static final class BandTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient BandSum bandSum;
+        private final int startRow;
+        private final int endRow;
+        private final int rowsPerBand;
+
+        private BandTask(@NotNull final BandSum bandSum, final int startRow, final int endRow, final int rowsPerBand) {
+            super();
+            this.bandSum = bandSum;
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.rowsPerBand = rowsPerBand;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (endRow - startRow <= rowsPerBand) {
+                return bandSum.sum(startRow, endRow);
+            }
+
+            final int middleRow = (startRow + endRow) >>> 1;
+            final BandTask upperBand = new BandTask(bandSum, startRow, middleRow, rowsPerBand);
+            upperBand.fork();
+            final long[] lowerSums = new BandTask(bandSum, middleRow, endRow, rowsPerBand).compute();
+            final long[] upperSums = upperBand.join();
+
+            for (int i = 0; i < lowerSums.length; i++) {
+                lowerSums[i] += upperSums[i];
+            }
+            return lowerSums;
+        }
+    }
 
     public static String getAverageColorAsHex(@NotNull final BufferedImage image) {
-        final Color averageColor = checkColorThreshold(getAverageColor(image));
+        return getAverageColorAsHex(image, 1);
+    }
+
+    public static String getAverageColorAsHex(@NotNull final BufferedImage image, final int stride) {
+        if (stride < 1) {
+            throw new IllegalArgumentException(String.format("invalid stride: %d", stride)); //NON-NLS
+        }
+        final long sampledPixels =
+                (long) sampleCount(image.getWidth(), stride) * sampleCount(image.getHeight(), stride);
+        final boolean parallel = sampledPixels > PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+        return getAverageColorAsHex(image, stride, parallel);
+    }
+
+    static String getAverageColorAsHex(@NotNull final BufferedImage image, final int stride, final boolean parallel) {
+        final Color averageColor = checkColorThreshold(getAverageColor(image, stride, parallel));
         final int averageColorRGB = averageColor.getRGB();
         
         return String.format("#%06X", 0xFFFFFF & averageColorRGB); // print rgb as hex value
     }
 
-    private static Color getAverageColor(@NotNull final BufferedImage image) {
-        long red = 0;
-        long green = 0;
-        long blue = 0;
-        long pixelCount = 0;
-
-        int columnCount;
-        int rowCount;
-
-        for (columnCount = 0; columnCount < image.getWidth(); columnCount++) {
-            for (rowCount = 0; rowCount < image.getHeight(); pixelCount++) {
-                @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // color is immutable
-                final Color color = new Color(image.getRGB(columnCount, rowCount++));
-                red += color.getRed();
-                green += color.getGreen();
-                blue += color.getBlue();
-            }
+    private static Color getAverageColor(@NotNull final BufferedImage image, final int stride,
+                                         final boolean parallel) {
+        final BandSum bandSum;
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+                bandSum = sumPackedPixels(image.getRaster(), stride);
+                break;
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR:
+                bandSum = sumInterleavedPixels(image.getRaster(), stride);
+                break;
+            default:
+                bandSum = sumRGBPixels(image, stride);
+                break;
+        }
+
+        final int rowCount = sampleCount(image.getHeight(), stride);
+        final long[] sums;
+        if (parallel) {
+            final int rowsPerBand = Math.max(1, BAND_SIZE / sampleCount(image.getWidth(), stride));
+            sums = ForkJoinPool.commonPool().invoke(new BandTask(bandSum, 0, rowCount, rowsPerBand));
+        } else {
+            sums = bandSum.sum(0, rowCount);
         }
 
-        final int averageRed = (int) (red / pixelCount);
-        final int averageGreen = (int) (green / pixelCount);
-        final int averageBlue = (int) (blue / pixelCount);
+        final long pixelCount = sums[3];
+        final int averageRed = (int) (sums[0] / pixelCount);
+        final int averageGreen = (int) (sums[1] / pixelCount);
+        final int averageBlue = (int) (sums[2] / pixelCount);
 
         return new Color(averageRed, averageGreen, averageBlue);
     }
 
-    private static Color checkColorThreshold(@NotNull final Color color) {
-        int averageRed = color.getRed();
-        int averageGreen = color.getGreen();
-        int averageBlue = color.getBlue();
-        long averageColor = averageRed + averageGreen + averageBlue;
-
-        if (averageColor > THRESHOLD_COLOR) {
-            while (averageColor > THRESHOLD_COLOR) {
-                if (averageRed > 0) averageRed--;
-                if (averageGreen > 0) averageGreen--;
-                if (averageBlue > 0) averageBlue--;
-                averageColor = averageRed + averageGreen + averageBlue;
+    private static int sampleCount(final int size, final int stride) {
+        return (size + stride - 1) / stride;
+    }
+
+    private static BandSum sumPackedPixels(@NotNull final Raster raster, final int stride) {
+        final SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+        final DataBufferInt dataBuffer = (DataBufferInt) raster.getDataBuffer();
+        final int[] data = dataBuffer.getData();
+        final int scanlineStride = sampleModel.getScanlineStride();
+        final int offset = dataBuffer.getOffset()
+                - raster.getSampleModelTranslateY() * scanlineStride - raster.getSampleModelTranslateX();
+        final int width = raster.getWidth();
+
+        return (startRow, endRow) -> {
+            long red = 0;
+            long green = 0;
+            long blue = 0;
+            long pixelCount = 0;
+
+            for (int row = startRow; row < endRow; row++) {
+                final int rowOffset = offset + row * stride * scanlineStride;
+                for (int x = 0; x < width; x += stride) {
+                    final int pixel = data[rowOffset + x];
+                    red += (pixel >> 16) & 0xFF;
+                    green += (pixel >> 8) & 0xFF;
+                    blue += pixel & 0xFF;
+                    pixelCount++;
+                }
+            }
+
+            return new long[] {red, green, blue, pixelCount};
+        };
+    }
+
+    private static BandSum sumInterleavedPixels(@NotNull final Raster raster, final int stride) {
+        final PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+        final DataBufferByte dataBuffer = (DataBufferByte) raster.getDataBuffer();
+        final byte[] data = dataBuffer.getData();
+        final int scanlineStride = sampleModel.getScanlineStride();
+        final int pixelStride = sampleModel.getPixelStride();
+        final int[] bandOffsets = sampleModel.getBandOffsets();
+        final int offset = dataBuffer.getOffset()
+                - raster.getSampleModelTranslateY() * scanlineStride
+                - raster.getSampleModelTranslateX() * pixelStride;
+        final int width = raster.getWidth();
+
+        return (startRow, endRow) -> {
+            long red = 0;
+            long green = 0;
+            long blue = 0;
+            long pixelCount = 0;
+
+            for (int row = startRow; row < endRow; row++) {
+                final int rowOffset = offset + row * stride * scanlineStride;
+                for (int x = 0; x < width; x += stride) {
+                    final int pixelOffset = rowOffset + x * pixelStride;
+                    red += data[pixelOffset + bandOffsets[0]] & 0xFF;
+                    green += data[pixelOffset + bandOffsets[1]] & 0xFF;
+                    blue += data[pixelOffset + bandOffsets[2]] & 0xFF;
+                    pixelCount++;
+                }
+            }
+
+            return new long[] {red, green, blue, pixelCount};
+        };
+    }
+
+    private static BandSum sumRGBPixels(@NotNull final BufferedImage image, final int stride) {
+        final int width = image.getWidth();
+
+        return (startRow, endRow) -> {
+            final int[] pixels = new int[width];
+
+            long red = 0;
+            long green = 0;
+            long blue = 0;
+            long pixelCount = 0;
+
+            for (int row = startRow; row < endRow; row++) {
+                image.getRGB(0, row * stride, width, 1, pixels, 0, width);
+                for (int x = 0; x < width; x += stride) {
+                    final int pixel = pixels[x];
+                    red += (pixel >> 16) & 0xFF;
+                    green += (pixel >> 8) & 0xFF;
+                    blue += pixel & 0xFF;
+                    pixelCount++;
+                }
             }
+
+            return new long[] {red, green, blue, pixelCount};
+        };
+    }
+
+    static Color checkColorThreshold(@NotNull final Color color) {
+        final int red = color.getRed();
+        final int green = color.getGreen();
+        final int blue = color.getBlue();
+        final int excess = red + green + blue - THRESHOLD_COLOR;
+
+        if (excess <= 0) {
+            return color;
         }
 
-        return new Color(averageRed, averageGreen, averageBlue);
+        // darken all channels by the same amount until the sum is below the threshold;
+        // the sum of 8 bit channels exceeds it by at most 165, so no channel drops below zero
+        final int steps = (excess + 2) / 3;
+        return new Color(Math.max(0, red - steps), Math.max(0, green - steps), Math.max(0, blue - steps));
     }
 }
@@ -20,13 +20,38 @@ package ch.sportchef.business;
 import lombok.experimental.UtilityClass;
 
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 
 @UtilityClass
 public class ImageResizer {
 
+    private static final int SUBSAMPLING_HEADROOM = 2;
+
+    public enum Mode {
+        FAST(RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR, RenderingHints.VALUE_RENDER_SPEED, false),
+        BALANCED(RenderingHints.VALUE_INTERPOLATION_BILINEAR, RenderingHints.VALUE_RENDER_SPEED, true),
+        QUALITY(RenderingHints.VALUE_INTERPOLATION_BICUBIC, RenderingHints.VALUE_RENDER_QUALITY, true);
+
+        private final Object interpolation;
+        private final Object rendering;
+        private final boolean progressive;
+
+        Mode(final Object interpolation, final Object rendering, final boolean progressive) {
+            this.interpolation = interpolation;
+            this.rendering = rendering;
+            this.progressive = progressive;
+        }
+    }
+
     public static BufferedImage resizeAndCrop(final BufferedImage inputImage,
                                               final int outputWidth, final int outputHeight) {
+        return resizeAndCrop(inputImage, outputWidth, outputHeight, Mode.BALANCED);
+    }
+
+    public static BufferedImage resizeAndCrop(final BufferedImage inputImage,
+                                              final int outputWidth, final int outputHeight,
+                                              final Mode mode) {
 
         final double outputAspectRatio = outputWidth / (double) outputHeight;
 
@@ -53,7 +78,7 @@ public class ImageResizer {
                     scaleHeight = outputHeight;
                 }
 
-                resizedImage = resize(inputImage, scaleWidth, scaleHeight);
+                resizedImage = resize(inputImage, scaleWidth, scaleHeight, mode);
             } else {
                 resizedImage = inputImage;
             }
@@ -64,13 +89,47 @@ public class ImageResizer {
         return outputImage;
     }
 
+    public static int calculateSubsampling(final int inputWidth, final int inputHeight,
+                                           final int outputWidth, final int outputHeight) {
+        // keep the decoded image at least twice as large as the output, so the resize has some pixels left
+        final int factor = Math.min(inputWidth / outputWidth, inputHeight / outputHeight) / SUBSAMPLING_HEADROOM;
+        return Math.max(1, factor);
+    }
+
     public static BufferedImage resize(final BufferedImage inputImage,
                                        final int outputWidth, final int outputHeight) {
-        final BufferedImage outputImage = new BufferedImage(outputWidth, outputHeight, inputImage.getType());
+        return resize(inputImage, outputWidth, outputHeight, Mode.BALANCED);
+    }
 
-        final Graphics2D g2d = outputImage.createGraphics();
-        g2d.drawImage(inputImage, 0, 0, outputWidth, outputHeight, null);
-        g2d.dispose();
+    public static BufferedImage resize(final BufferedImage inputImage,
+                                       final int outputWidth, final int outputHeight,
+                                       final Mode mode) {
+        // always render into a format Java2D has fast loops for, this also covers TYPE_CUSTOM input images
+        final int imageType = inputImage.getColorModel().hasAlpha()
+                ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage outputImage = inputImage;
+        int width = inputImage.getWidth();
+        int height = inputImage.getHeight();
+
+        do {
+            // halve the size per step when downscaling, a single bilinear or bicubic
+            // step only looks at the neighbouring pixels and would skip the rest
+            width = mode.progressive && width > outputWidth ? Math.max(width / 2, outputWidth) : outputWidth;
+            height = mode.progressive && height > outputHeight ? Math.max(height / 2, outputHeight) : outputHeight;
+
+            final BufferedImage stepImage = new BufferedImage(width, height, imageType);
+            final Graphics2D g2d = stepImage.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, mode.interpolation);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, mode.rendering);
+            g2d.drawImage(outputImage, 0, 0, width, height, null);
+            g2d.dispose();
+
+            if (outputImage != inputImage) {
+                outputImage.flush();
+            }
+            outputImage = stepImage;
+        } while (width != outputWidth || height != outputHeight);
 
         return outputImage;
     }
@@ -0,0 +1,75 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+public class JsonStreamingOutput<T> implements StreamingOutput {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final Stream<T> elements;
+
+    public JsonStreamingOutput(@NotNull final Providers providers, @NotNull final Stream<T> elements) {
+        this(resolveObjectMapper(providers), elements);
+    }
+
+    public JsonStreamingOutput(@NotNull final ObjectMapper objectMapper, @NotNull final Stream<T> elements) {
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.elements = elements;
+    }
+
+    private static ObjectMapper resolveObjectMapper(@NotNull final Providers providers) {
+        // the mapper of the JSON provider, without a resolver the provider falls back to a default mapper as well
+        final ContextResolver<ObjectMapper> resolver =
+                providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE);
+        final ObjectMapper objectMapper = resolver != null ? resolver.getContext(ObjectMapper.class) : null;
+        return objectMapper != null ? objectMapper : new ObjectMapper();
+    }
+
+    @Override
+    public void write(@NotNull final OutputStream output) throws IOException {
+        try (final JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            final Iterator<T> iterator = elements.iterator();
+            while (iterator.hasNext()) {
+                objectWriter.writeValue(generator, iterator.next());
+            }
+            generator.writeEndArray();
+        } finally {
+            elements.close();
+        }
+    }
+
+}
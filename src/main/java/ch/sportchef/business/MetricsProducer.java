@@ -17,15 +17,44 @@
  */
 package ch.sportchef.business;
 
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.health.HealthCheckRegistry;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Produces;
+import javax.inject.Singleton;
 
+@ApplicationScoped
 public class MetricsProducer {
 
+    private static final MetricRegistry METRIC_REGISTRY = new MetricRegistry();
+
+    private JmxReporter jmxReporter;
+
+    @PostConstruct
+    public void setupResources() {
+        jmxReporter = JmxReporter.forRegistry(METRIC_REGISTRY).inDomain("ch.sportchef").build(); //NON-NLS
+        jmxReporter.start();
+    }
+
+    @PreDestroy
+    public void cleanupResources() {
+        // unregisters the MBeans, otherwise they would outlive an undeployed application
+        jmxReporter.stop();
+    }
+
     @Produces
     public HealthCheckRegistry healthCheckRegistryProducer() {
         return new HealthCheckRegistry();
     }
 
-}
\ No newline at end of file
+    @Produces
+    @Singleton
+    public MetricRegistry metricRegistryProducer() {
+        return METRIC_REGISTRY;
+    }
+
+}
@@ -19,6 +19,7 @@ package ch.sportchef.business.authentication.boundary;
 
 import ch.sportchef.business.authentication.control.AuthenticationService;
 import ch.sportchef.business.authentication.entity.AuthenticationData;
+import ch.sportchef.business.exception.TooManyRequestsException;
 
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
@@ -29,15 +30,20 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @Path("authentication")
 @Produces(MediaType.APPLICATION_JSON)
 public class AuthenticationResource {
 
+    private static final int MAIL_RETRY_AFTER = 10;
+    private static final int TOO_MANY_REQUESTS = 429;
+
     private final AuthenticationService authenticationService;
 
     @Inject
@@ -53,9 +59,20 @@ public class AuthenticationResource {
         if (email == null || email.trim().isEmpty()) {
             response = Response.status(Status.BAD_REQUEST).build();
         } else {
-            response = authenticationService.requestChallenge(email) ?
-                    Response.ok().build() :
-                    Response.status(Status.NOT_FOUND).build();
+            try {
+                response = authenticationService.requestChallenge(email) ?
+                        Response.ok().build() :
+                        Response.status(Status.NOT_FOUND).build();
+            } catch (final RejectedExecutionException e) {
+                // too many challenge mails waiting for delivery, the client should try again later
+                response = Response.status(Status.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, MAIL_RETRY_AFTER)
+                        .build();
+            } catch (final TooManyRequestsException e) {
+                response = Response.status(TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, e.getRetryAfter())
+                        .build();
+            }
         }
 
         return response;
@@ -21,66 +21,115 @@ import ch.sportchef.business.authentication.entity.Challenge;
 import ch.sportchef.business.authentication.entity.Role;
 import ch.sportchef.business.configuration.control.ConfigurationService;
 import ch.sportchef.business.configuration.entity.Configuration;
+import ch.sportchef.business.exception.TooManyRequestsException;
+import ch.sportchef.business.mail.control.MailService;
 import ch.sportchef.business.user.control.UserService;
 import ch.sportchef.business.user.entity.User;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.annotation.Metered;
 import com.codahale.metrics.annotation.Timed;
 import com.codahale.metrics.health.HealthCheckRegistry;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import lombok.SneakyThrows;
-import org.apache.commons.mail.DefaultAuthenticator;
-import org.apache.commons.mail.Email;
-import org.apache.commons.mail.SimpleEmail;
+import lombok.Value;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
-import java.security.SecureRandom;
 import java.util.Date;
 import java.util.Optional;
-import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 @Singleton
 @Timed(name = "Timed: AuthenticationService")
 @Metered(name = "Metered: AuthenticationService")
 public class AuthenticationService {
 
-    private static final String CHALLENGE_CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
     private static final int MINIMAL_CHALLENGE_LENGTH = 5;
     private static final int MAXIMAL_CHALLENGE_LENGTH = 10;
     private static final int TRESHOLD_FOR_COMPLEXITY_INCREASE = 20;
     private static final int MAXIMAL_WRONG_CHALENGE_TRIES = 10;
+    private static final long TOKEN_CACHE_SIZE = 10_000L;
 
     private final UserService userService;
     private final ConfigurationService configurationService;
+    private final MailService mailService;
+    private final TokenCodec tokenCodec;
+    private final ChallengeGenerator challengeGenerator;
+    private final ChallengeRateLimiter challengeRateLimiter;
     private final Cache<String, Challenge> challengeCache;
+    private final Cache<String, VerifiedToken> tokenCache;
+    private final Meter tokenCacheHits;
+    private final Meter tokenCacheMisses;
 
     @Inject
     public AuthenticationService(@NotNull final UserService userService,
                                  @NotNull final ConfigurationService configurationService,
-                                 @NotNull final HealthCheckRegistry healthCheckRegistry) {
+                                 @NotNull final MailService mailService,
+                                 @NotNull final HealthCheckRegistry healthCheckRegistry,
+                                 @NotNull final MetricRegistry metricRegistry) {
         this.userService = userService;
         this.configurationService = configurationService;
+        this.mailService = mailService;
+        tokenCodec = new TokenCodec(configurationService);
+        challengeGenerator = new ChallengeGenerator();
+        final Configuration configuration = configurationService.getConfiguration();
+        challengeRateLimiter = new ChallengeRateLimiter(
+                configuration.getChallengeLimitEmail(), configuration.getChallengeLimitGlobal());
         challengeCache = CacheBuilder.newBuilder()
                 .expireAfterWrite(10, TimeUnit.MINUTES)
                 .build();
+
+        // tokens are never valid longer than the configured expiration time, expired entries are skipped anyway
+        final Integer tokenExpirationTime = configuration.getTokenExpirationTime();
+        tokenCache = CacheBuilder.newBuilder()
+                .maximumSize(TOKEN_CACHE_SIZE)
+                .expireAfterWrite(tokenExpirationTime, TimeUnit.MINUTES)
+                .build();
+        userService.addChangeListener(user -> invalidateTokens(user.getUserId()));
+
+        tokenCacheHits = metricRegistry.meter(name(AuthenticationService.class, "token-cache", "hits")); //NON-NLS
+        tokenCacheMisses = metricRegistry.meter(name(AuthenticationService.class, "token-cache", "misses")); //NON-NLS
+        final String tokenCacheSizeName = name(AuthenticationService.class, "token-cache", "size"); //NON-NLS
+        metricRegistry.remove(tokenCacheSizeName);
+        metricRegistry.register(tokenCacheSizeName, (Gauge<Long>) tokenCache::size);
+
         healthCheckRegistry.register("AuthenticationService", new AuthenticationServiceHealthCheck(this));
     }
 
     public boolean requestChallenge(@NotNull final String email) {
         final boolean success;
 
+        // checked before any lookup, so flooding an address costs neither a query nor a mail
+        final long retryAfter = challengeRateLimiter.acquire(email);
+        if (retryAfter > 0) {
+            throw new TooManyRequestsException(
+                    String.format("too many challenges requested for '%s'", email), retryAfter); //NON-NLS
+        }
+
         final Optional<User> user = userService.findByEmail(email);
         if (user.isPresent()) {
             final Challenge challenge = generateChallenge();
             challengeCache.put(email, challenge);
-            sendChallenge(email, challenge);
+            boolean sent = false;
+            try {
+                sendChallenge(email, challenge);
+                sent = true;
+            } finally {
+                if (!sent) {
+                    // the user never gets this challenge, it must not count wrong tries against them
+                    challengeCache.asMap().remove(email, challenge);
+                }
+            }
             success = true;
         } else {
             success = false;
@@ -90,14 +139,7 @@ public class AuthenticationService {
     }
 
     private Challenge generateChallenge() {
-        final int requiredLength = currentlyRequiredChallengeLength();
-        final StringBuilder challengeBuilder = new StringBuilder(requiredLength);
-        final Random random = new SecureRandom();
-        while (challengeBuilder.length() < requiredLength) {
-            final char randomChar = CHALLENGE_CHARACTERS.charAt(random.nextInt(CHALLENGE_CHARACTERS.length()));
-            challengeBuilder.append(randomChar);
-        }
-        return new Challenge(challengeBuilder.toString());
+        return new Challenge(challengeGenerator.generate(currentlyRequiredChallengeLength()));
     }
 
     private int currentlyRequiredChallengeLength() {
@@ -109,17 +151,9 @@ public class AuthenticationService {
 
     @SneakyThrows
     private void sendChallenge(@NotNull final String email, @NotNull final Challenge challenge) {
-        final Configuration configuration = configurationService.getConfiguration();
-        final Email mail = new SimpleEmail();
-        mail.setHostName(configuration.getSMTPServer());
-        mail.setSmtpPort(configuration.getSMTPPort());
-        mail.setAuthenticator(new DefaultAuthenticator(configuration.getSMTPUser(), configuration.getSMTPPassword()));
-        mail.setSSLOnConnect(configuration.getSMTPSSL());
-        mail.setFrom(configuration.getSMTPFrom());
-        mail.setSubject("Your challenge to login to SportChef");
-        mail.setMsg(String.format("Challenge = %s", challenge.getChallenge()));
-        mail.addTo(email);
-        mail.send();
+        // the mail is only queued, it is delivered in the background
+        mailService.sendMail(email, "Your challenge to login to SportChef",
+                String.format("Challenge = %s", challenge.getChallenge()));
     }
 
     public Optional<String> validateChallenge(@NotNull final String email,
@@ -141,7 +175,6 @@ public class AuthenticationService {
 
     private String generateToken(@NotNull final String email) {
         final Configuration configuration = configurationService.getConfiguration();
-        final String tokenSigningKey = configuration.getTokenSigningKey();
         final Integer tokenExpirationTime = configuration.getTokenExpirationTime();
 
         final Date now = new Date();
@@ -152,25 +185,52 @@ public class AuthenticationService {
         claims.setExpiration(exp);
         claims.put("email", email); //NON-NLS
 
-        return Jwts.builder()
-                .setClaims(claims)
-                .signWith(SignatureAlgorithm.HS512, tokenSigningKey)
-                .compact();
+        return tokenCodec.createToken(claims);
     }
 
     Optional<User> validate(@NotNull final String token) {
-        final Configuration configuration = configurationService.getConfiguration();
-        final String tokenSigningKey = configuration.getTokenSigningKey();
-
-        final Jws<Claims> result = Jwts.parser()
-                .setSigningKey(tokenSigningKey)
-                .parseClaimsJws(token);
-        final Claims claims = result.getBody();
-        final String email = claims.get("email", String.class); //NON-NLS
-        return userService.findByEmail(email);
+        final Optional<User> user;
+
+        // only a hash of the token is kept in memory
+        final String tokenHash = Hashing.sha256().hashString(token, UTF_8).toString();
+        final VerifiedToken verifiedToken = tokenCache.getIfPresent(tokenHash);
+        // only the signature check is cached, the current user is looked up on every hit so changes apply at once
+        final boolean valid = verifiedToken != null && verifiedToken.getExpiration() > System.currentTimeMillis();
+        final Optional<User> cachedUser = valid
+                ? userService.findByUserId(verifiedToken.getUserId())
+                        .filter(currentUser -> verifiedToken.getEmail().equals(currentUser.getEmail()))
+                : Optional.empty();
+        if (cachedUser.isPresent()) {
+            tokenCacheHits.mark();
+            user = cachedUser;
+        } else {
+            tokenCacheMisses.mark();
+            tokenCache.invalidate(tokenHash);
+
+            final Claims claims = tokenCodec.parseToken(token);
+            final String email = claims.get("email", String.class); //NON-NLS
+            user = userService.findByEmail(email);
+            if (user.isPresent() && claims.getExpiration() != null) {
+                tokenCache.put(tokenHash,
+                        new VerifiedToken(user.get().getUserId(), email, claims.getExpiration().getTime()));
+            }
+        }
+
+        return user;
+    }
+
+    private void invalidateTokens(@NotNull final Long userId) {
+        tokenCache.asMap().values().removeIf(verifiedToken -> userId.equals(verifiedToken.getUserId()));
     }
 
     public boolean isUserInRole(@NotNull final User user, @NotNull final Role role) {
         return user.getRole().getLevel() >= role.getLevel();
     }
+
+    @Value
+    private static class VerifiedToken {
+        private Long userId;
+        private String email;
+        private long expiration;
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import java.security.SecureRandom;
+
+class ChallengeGenerator {
+
+    private static final String CHALLENGE_CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int CHARACTER_MASK = 0x3F;
+    private static final int BUFFER_SIZE = 64;
+
+    // SecureRandom is thread safe, one instance avoids per thread state which would outlive a redeployment
+    private final SecureRandom random = new SecureRandom();
+
+    ChallengeGenerator() {
+        // seed the generator up front, so the first challenge does not pay for it
+        random.nextBytes(new byte[1]);
+    }
+
+    String generate(final int length) {
+        // the random bytes are drawn in bulk, one call per challenge instead of one per character
+        final byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)];
+        int bytePosition = bytes.length;
+        final char[] challenge = new char[length];
+        int position = 0;
+        while (position < length) {
+            if (bytePosition == bytes.length) {
+                random.nextBytes(bytes);
+                bytePosition = 0;
+            }
+            // six random bits give 64 values, the two without a character are skipped to avoid a bias
+            final int index = bytes[bytePosition++] & CHARACTER_MASK;
+            if (index < CHALLENGE_CHARACTERS.length()) {
+                challenge[position++] = CHALLENGE_CHARACTERS.charAt(index);
+            }
+        }
+        return new String(challenge);
+    }
+}
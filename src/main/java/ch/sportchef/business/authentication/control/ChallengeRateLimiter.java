@@ -0,0 +1,83 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import javax.validation.constraints.NotNull;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+class ChallengeRateLimiter {
+
+    private static final long REFILL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long MAX_TRACKED_EMAILS = 100_000L;
+
+    private final Ticker ticker;
+    private final LoadingCache<String, TokenBucket> emailBuckets;
+    private final TokenBucket[] globalBuckets;
+
+    ChallengeRateLimiter(final int challengesPerEmail, final int challengesGlobal) {
+        this(challengesPerEmail, challengesGlobal, Ticker.systemTicker());
+    }
+
+    ChallengeRateLimiter(final int challengesPerEmail, final int challengesGlobal, @NotNull final Ticker ticker) {
+        this.ticker = ticker;
+
+        // an idle bucket is full again after one minute, forgetting it then changes nothing
+        emailBuckets = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TRACKED_EMAILS)
+                .expireAfterAccess(REFILL_NANOS, TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                .build(CacheLoader.from(() -> new TokenBucket(challengesPerEmail, REFILL_NANOS)));
+
+        // the global limit is split into stripes, so concurrent requests rarely compete for the same counter
+        final int stripes = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), challengesGlobal));
+        globalBuckets = new TokenBucket[stripes];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            final int capacity = challengesGlobal / stripes + (stripe < challengesGlobal % stripes ? 1 : 0);
+            globalBuckets[stripe] = new TokenBucket(capacity, REFILL_NANOS);
+        }
+    }
+
+    // returns zero if a challenge may be sent, otherwise the number of seconds to wait
+    long acquire(@NotNull final String email) {
+        final long now = ticker.read();
+        final TokenBucket emailBucket = emailBuckets.getUnchecked(email.trim().toLowerCase(Locale.ROOT));
+        if (!emailBucket.tryAcquire(now)) {
+            return toSeconds(emailBucket.getEmissionInterval());
+        }
+
+        final int start = (int) (Thread.currentThread().getId() % globalBuckets.length);
+        for (int i = 0; i < globalBuckets.length; i++) {
+            if (globalBuckets[(start + i) % globalBuckets.length].tryAcquire(now)) {
+                return 0L;
+            }
+        }
+        // the challenge is not sent, so it must not use up the personal allowance of the address
+        emailBucket.release();
+        return toSeconds(globalBuckets[start].getEmissionInterval());
+    }
+
+    private static long toSeconds(final long nanos) {
+        return Math.max(1L, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
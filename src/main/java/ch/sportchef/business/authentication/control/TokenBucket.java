@@ -0,0 +1,56 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class TokenBucket {
+
+    private final long capacity;
+    private final long emissionInterval;
+
+    // the time at which the bucket would be full again, tokens are taken by moving it into the future
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(final long capacity, final long refillNanos) {
+        this.capacity = capacity;
+        this.emissionInterval = Math.max(1L, refillNanos / Math.max(1L, capacity));
+    }
+
+    boolean tryAcquire(final long now) {
+        while (true) {
+            final long current = fullAt.get();
+            final long next = Math.max(current, now) + emissionInterval;
+            if (next - now > capacity * emissionInterval) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // gives back a token taken by tryAcquire, a bucket never holds more than its capacity anyway
+    void release() {
+        fullAt.addAndGet(-emissionInterval);
+    }
+
+    long getEmissionInterval() {
+        return emissionInterval;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import ch.sportchef.business.configuration.control.ConfigurationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import lombok.Value;
+
+import javax.crypto.spec.SecretKeySpec;
+import javax.validation.constraints.NotNull;
+import java.security.Key;
+import java.util.concurrent.atomic.AtomicReference;
+
+class TokenCodec {
+
+    private static final SignatureAlgorithm SIGNATURE_ALGORITHM = SignatureAlgorithm.HS512;
+
+    private final ConfigurationService configurationService;
+    private final AtomicReference<SigningKey> signingKey = new AtomicReference<>();
+
+    TokenCodec(@NotNull final ConfigurationService configurationService) {
+        this.configurationService = configurationService;
+    }
+
+    String createToken(@NotNull final Claims claims) {
+        return Jwts.builder()
+                .setClaims(claims)
+                .signWith(SIGNATURE_ALGORITHM, getSigningKey().getKey())
+                .compact();
+    }
+
+    Claims parseToken(@NotNull final String token) {
+        return getSigningKey().getParser()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private SigningKey getSigningKey() {
+        final String tokenSigningKey = configurationService.getConfiguration().getTokenSigningKey();
+        SigningKey currentSigningKey = signingKey.get();
+        if (currentSigningKey == null || !currentSigningKey.getTokenSigningKey().equals(tokenSigningKey)) {
+            // the key is only decoded again when the configuration has changed
+            currentSigningKey = SigningKey.of(tokenSigningKey);
+            signingKey.set(currentSigningKey);
+        }
+        return currentSigningKey;
+    }
+
+    @Value
+    private static class SigningKey {
+
+        private String tokenSigningKey;
+        private Key key;
+        private JwtParser parser;
+
+        static SigningKey of(@NotNull final String tokenSigningKey) {
+            // decoded the same way jjwt decodes a string key, so existing tokens stay valid
+            final byte[] keyBytes = TextCodec.BASE64.decode(tokenSigningKey);
+            final Key key = new SecretKeySpec(keyBytes, SIGNATURE_ALGORITHM.getJcaName());
+            final JwtParser parser = Jwts.parser().setSigningKey(key);
+            return new SigningKey(tokenSigningKey, key, parser);
+        }
+    }
+}
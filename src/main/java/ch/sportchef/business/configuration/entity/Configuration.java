@@ -35,6 +35,14 @@ public class Configuration {
     private static final String ADMIN_EMAIL_KEY = "admin.email";
     private static final String ADMIN_PHONE_KEY = "admin.phone";
 
+    private static final String IMAGE_UPLOAD_MAX_SIZE_KEY = "image.upload.maxSize";
+    private static final String IMAGE_FORMATS_KEY = "image.formats";
+    private static final String IMAGE_JPEG_QUALITY_KEY = "image.jpeg.quality";
+    private static final String IMAGE_WEBP_QUALITY_KEY = "image.webp.quality";
+
+    private static final String CHALLENGE_LIMIT_EMAIL_KEY = "challenge.limit.email";
+    private static final String CHALLENGE_LIMIT_GLOBAL_KEY = "challenge.limit.global";
+
     private final Properties properties = new Properties();
 
     public Configuration(@NotNull final Map<Object, Object> properties) {
@@ -93,4 +101,28 @@ public class Configuration {
         return properties.getProperty("smtp.from", null);
     }
 
+    public Long getImageUploadMaxSize() {
+        return Long.valueOf(properties.getProperty(IMAGE_UPLOAD_MAX_SIZE_KEY, "10485760"));
+    }
+
+    public String getImageFormats() {
+        return properties.getProperty(IMAGE_FORMATS_KEY, "png");
+    }
+
+    public Float getImageJpegQuality() {
+        return Float.valueOf(properties.getProperty(IMAGE_JPEG_QUALITY_KEY, "0.85"));
+    }
+
+    public Float getImageWebpQuality() {
+        return Float.valueOf(properties.getProperty(IMAGE_WEBP_QUALITY_KEY, "0.8"));
+    }
+
+    public Integer getChallengeLimitEmail() {
+        return Integer.valueOf(properties.getProperty(CHALLENGE_LIMIT_EMAIL_KEY, "3"));
+    }
+
+    public Integer getChallengeLimitGlobal() {
+        return Integer.valueOf(properties.getProperty(CHALLENGE_LIMIT_GLOBAL_KEY, "600"));
+    }
+
 }
@@ -0,0 +1,66 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015, 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.boundary;
+
+import lombok.Value;
+
+@Value
+class ByteRange {
+
+    private static final String BYTES_UNIT = "bytes="; //NON-NLS
+
+    private long start;
+
+    private long end;
+
+    @SuppressWarnings("PMD.EmptyCatchBlock")
+    static ByteRange parse(final String header, final long length) {
+        ByteRange range = null;
+
+        if (header != null && header.startsWith(BYTES_UNIT) && header.indexOf(',') < 0) {
+            final String spec = header.substring(BYTES_UNIT.length()).trim();
+            final int dash = spec.indexOf('-');
+            try {
+                if (dash == 0) {
+                    final long suffixLength = Long.parseLong(spec.substring(1));
+                    range = new ByteRange(Math.max(0, length - suffixLength), length - 1);
+                } else if (dash > 0) {
+                    final long start = Long.parseLong(spec.substring(0, dash));
+                    final String endSpec = spec.substring(dash + 1);
+                    final long end = endSpec.isEmpty() ? Long.MAX_VALUE : Long.parseLong(endSpec);
+                    if (end >= start) {
+                        range = new ByteRange(start, Math.min(end, length - 1));
+                    }
+                }
+            } catch (final NumberFormatException e) {
+                // malformed range header, ignore it and send the full content
+            }
+        }
+
+        return range;
+    }
+
+    boolean isSatisfiable() {
+        return start <= end;
+    }
+
+    long getCount() {
+        return end - start + 1;
+    }
+
+}
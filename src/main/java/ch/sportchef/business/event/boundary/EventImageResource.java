@@ -18,32 +18,66 @@
 package ch.sportchef.business.event.boundary;
 
 import ch.sportchef.business.event.control.EventImageService;
+import ch.sportchef.business.event.entity.EventImage;
+import ch.sportchef.business.event.entity.EventImageFormat;
+import ch.sportchef.business.event.entity.EventImageSize;
+import ch.sportchef.business.event.entity.ImageUploadStatus;
 import org.apache.commons.fileupload.MultipartStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.core.Variant;
 import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.PARTIAL_CONTENT;
+import static javax.ws.rs.core.Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 
 public class EventImageResource {
 
-    private static final String IMAGE_PLACEHOLDER = "http://placehold.it/350x200"; //NON-NLS
+    private static final String IMAGE_PLACEHOLDER = "http://placehold.it/%dx%d"; //NON-NLS
+    private static final int IMAGE_MAX_AGE = 300;
+    private static final String ACCEPT_RANGES = "Accept-Ranges"; //NON-NLS
+    private static final String CONTENT_RANGE = "Content-Range"; //NON-NLS
+    private static final String STATUS_PATH = "status"; //NON-NLS
+    private static final int UPLOAD_RETRY_AFTER = 5;
 
     private final Long eventId;
     private final EventImageService eventImageService;
@@ -55,28 +89,128 @@ public class EventImageResource {
     }
 
     @GET
-    @Produces({"image/png"})
-    public Response getImage() throws URISyntaxException, IOException {
+    @Produces({"image/png", "image/jpeg", "image/webp"}) //NON-NLS
+    public Response getImage(@Context final Request request,
+                             @HeaderParam("Range") final String range,
+                             @HeaderParam("If-Range") final String ifRange,
+                             @QueryParam("size") final String size) throws URISyntaxException, IOException {
+        final EventImageSize imageSize = parseSize(size);
         Response response;
 
         try {
-            final byte[] image = eventImageService.getImage(eventId);
-            response = Response.ok().entity((StreamingOutput) stream -> {
-                stream.write(image);
-                stream.flush();
-            }).build();
+            final List<Variant> variants = createVariants(eventImageService.getImageFormats());
+            final EventImageFormat imageFormat = selectFormat(request.selectVariant(variants));
+            final EventImage image = eventImageService.getImage(eventId, imageSize, imageFormat);
+            final EntityTag entityTag = new EntityTag(image.getEntityTag());
+            final ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+            final ResponseBuilder responseBuilder = notModified != null ? notModified :
+                    createImageResponse(image, matchesIfRange(ifRange, entityTag)
+                            ? ByteRange.parse(range, image.getLength()) : null)
+                            .type(image.getFormat().getMediaType());
+            final CacheControl cacheControl = new CacheControl();
+            cacheControl.setMaxAge(IMAGE_MAX_AGE);
+            response = responseBuilder.tag(entityTag).cacheControl(cacheControl).variants(variants).build();
         } catch (final NotFoundException e) {
             // no image found, redirecting to placeholder image
-            final URI location = new URI(IMAGE_PLACEHOLDER);
+            final URI location = new URI(String.format(IMAGE_PLACEHOLDER, imageSize.getWidth(), imageSize.getHeight()));
             response = Response.temporaryRedirect(location).build();
         }
 
         return response;
     }
 
+    private static List<Variant> createVariants(@NotNull final List<EventImageFormat> formats) {
+        final MediaType[] mediaTypes = formats.stream()
+                .map(format -> MediaType.valueOf(format.getMediaType()))
+                .toArray(MediaType[]::new);
+        return Variant.mediaTypes(mediaTypes).build();
+    }
+
+    private static EventImageFormat selectFormat(final Variant variant) {
+        if (variant != null) {
+            for (final EventImageFormat format : EventImageFormat.values()) {
+                if (MediaType.valueOf(format.getMediaType()).isCompatible(variant.getMediaType())) {
+                    return format;
+                }
+            }
+        }
+        return EventImageFormat.PNG;
+    }
+
+    private static EventImageSize parseSize(final String size) {
+        try {
+            return size != null ? EventImageSize.valueOf(size.trim().toUpperCase(Locale.ROOT)) : EventImageSize.MEDIUM;
+        } catch (final IllegalArgumentException e) {
+            throw new BadRequestException(String.format("invalid image size '%s'", size), e); //NON-NLS
+        }
+    }
+
+    private static boolean matchesIfRange(final String ifRange, @NotNull final EntityTag entityTag) {
+        if (ifRange == null) {
+            return true;
+        }
+        // images carry no Last-Modified, so a date never matches; weak tags never match either
+        final String value = ifRange.trim();
+        return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"") //NON-NLS
+                && value.substring(1, value.length() - 1).equals(entityTag.getValue());
+    }
+
+    private static ResponseBuilder createImageResponse(@NotNull final EventImage image, final ByteRange range) {
+        final long length = image.getLength();
+        final ResponseBuilder responseBuilder;
+
+        if (range == null) {
+            responseBuilder = Response.ok()
+                    .entity(createStreamingOutput(image, 0, length))
+                    .header(HttpHeaders.CONTENT_LENGTH, length);
+        } else if (range.isSatisfiable()) {
+            responseBuilder = Response.status(PARTIAL_CONTENT)
+                    .entity(createStreamingOutput(image, range.getStart(), range.getCount()))
+                    .header(HttpHeaders.CONTENT_LENGTH, range.getCount())
+                    .header(CONTENT_RANGE, String.format("bytes %d-%d/%d", //NON-NLS
+                            range.getStart(), range.getEnd(), length));
+        } else {
+            responseBuilder = Response.status(REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(CONTENT_RANGE, String.format("bytes */%d", length)); //NON-NLS
+        }
+
+        return responseBuilder.header(ACCEPT_RANGES, "bytes"); //NON-NLS
+    }
+
+    private static StreamingOutput createStreamingOutput(@NotNull final EventImage image,
+                                                         final long position, final long count) {
+        final StreamingOutput streamingOutput;
+
+        if (image.getData() != null) {
+            streamingOutput = stream -> {
+                stream.write(image.getData(), (int) position, (int) count);
+                stream.flush();
+            };
+        } else {
+            streamingOutput = stream -> {
+                try (final FileChannel fileChannel = FileChannel.open(image.getPath(), StandardOpenOption.READ)) {
+                    final WritableByteChannel outputChannel = Channels.newChannel(stream);
+                    long transferred = 0;
+                    while (transferred < count) {
+                        final long bytes = fileChannel.transferTo(
+                                position + transferred, count - transferred, outputChannel);
+                        if (bytes <= 0) {
+                            break;
+                        }
+                        transferred += bytes;
+                    }
+                }
+                stream.flush();
+            };
+        }
+
+        return streamingOutput;
+    }
+
     @PUT
     @Consumes(MediaType.MULTIPART_FORM_DATA)
-    public Response uploadImage(@Context final HttpServletRequest request) throws IOException, ServletException {
+    public Response uploadImage(@Context final HttpServletRequest request,
+                                @Context final UriInfo info) throws IOException, ServletException {
         Response response = Response.status(BAD_REQUEST).build();
 
         final String contentType = request.getContentType();
@@ -88,19 +222,51 @@ public class EventImageResource {
             //noinspection LoopStatementThatDoesntLoop
             if (nextPart) {
                 multipartStream.readHeaders(); // don't remove, strips headers off
+                final java.nio.file.Path imageFile = eventImageService.createUploadFile();
                 //noinspection NestedTryStatement
-                try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8192)) {
+                try (final OutputStream outputStream = new LimitedOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(imageFile), 8192), eventImageService.getMaxUploadSize())) {
                     multipartStream.readBodyData(outputStream);
-                    final byte[] image = outputStream.toByteArray();
-                    eventImageService.uploadImage(eventId, image);
-                    response = Response.ok().build();
+                } catch (@SuppressWarnings("PMD.AvoidCatchingGenericException")
+                         final IOException | RuntimeException e) {
+                    Files.deleteIfExists(imageFile);
+                    throw e;
                 }
+                response = submitImage(imageFile, info);
             }
         }
 
         return response;
     }
 
+    private Response submitImage(@NotNull final java.nio.file.Path imageFile,
+                                 @NotNull final UriInfo info) throws IOException {
+        Response response;
+
+        try {
+            final String jobId = eventImageService.submitImage(eventId, imageFile);
+            final URI location = info.getAbsolutePathBuilder().path(STATUS_PATH).path(jobId).build();
+            response = Response.accepted().location(location).build();
+        } catch (final RejectedExecutionException e) {
+            // too many uploads in the queue, the client should try again later
+            response = Response.status(SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, UPLOAD_RETRY_AFTER).build();
+        }
+
+        return response;
+    }
+
+    @GET
+    @Path(STATUS_PATH + "/{jobId}") //NON-NLS
+    @Produces(MediaType.APPLICATION_JSON)
+    public ImageUploadStatus getUploadStatus(@PathParam("jobId") final String jobId) {
+        final Optional<ImageUploadStatus> uploadStatus = eventImageService.getUploadStatus(eventId, jobId);
+        if (uploadStatus.isPresent()) {
+            return uploadStatus.get();
+        }
+        throw new NotFoundException(String.format("event with id '%d' has no image upload '%s'", //NON-NLS
+                eventId, jobId));
+    }
+
     @DELETE
     public Response deleteImage() {
         eventImageService.deleteImage(eventId);
@@ -17,6 +17,7 @@
  */
 package ch.sportchef.business.event.boundary;
 
+import ch.sportchef.business.JsonStreamingOutput;
 import ch.sportchef.business.event.control.EventImageService;
 import ch.sportchef.business.event.control.EventService;
 import ch.sportchef.business.event.entity.Event;
@@ -24,23 +25,36 @@ import ch.sportchef.business.event.entity.Event;
 import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
+import javax.ws.rs.NotAcceptableException;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.core.Variant;
+import javax.ws.rs.ext.Providers;
 import java.io.File;
 import java.net.URI;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Path("events")
 @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
 public class EventsResource {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final List<Variant> STREAM_VARIANTS = Variant.mediaTypes(
+            MediaType.APPLICATION_JSON_TYPE, MediaType.APPLICATION_XML_TYPE).build();
+
     private final EventService eventService;
     private final EventImageService eventImageService;
 
@@ -61,9 +75,64 @@ public class EventsResource {
     }
 
     @GET
-    public Response findAll() {
-        final List<Event> events = eventService.findAll();
-        return Response.ok(events).build();
+    public Response findAll(@QueryParam("from") final String from,
+                            @QueryParam("to") final String to,
+                            @QueryParam("cursor") final String cursor,
+                            @QueryParam("limit") final Integer limit,
+                            @QueryParam("stream") final boolean stream,
+                            @Context final Request request,
+                            @Context final Providers providers) {
+        final Response response;
+        final boolean paged = from != null || to != null || cursor != null || limit != null;
+
+        if (stream) {
+            if (paged) {
+                throw new BadRequestException("streaming can't be combined with paging parameters");
+            }
+            // only JSON can be streamed, clients preferring XML have to use the regular listing
+            final Variant variant = request.selectVariant(STREAM_VARIANTS);
+            if (variant == null || !MediaType.APPLICATION_JSON_TYPE.isCompatible(variant.getMediaType())) {
+                throw new NotAcceptableException(Response.notAcceptable(STREAM_VARIANTS).build());
+            }
+            final Stream<Event> events = eventService.streamAll();
+            response = Response.ok(new JsonStreamingOutput<>(providers, events), MediaType.APPLICATION_JSON_TYPE)
+                    .build();
+        } else if (!paged) {
+            final List<Event> events = eventService.findAll();
+            response = Response.ok(events).build();
+        } else {
+            if (limit != null && limit < 1) {
+                throw new BadRequestException(String.format("invalid limit '%d'", limit));
+            }
+            final LocalDate fromDate = parseDate(from);
+            final LocalDate toDate = parseDate(to);
+            if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+                throw new BadRequestException(String.format("invalid range from '%s' to '%s'", from, to));
+            }
+            final int pageSize = limit != null ? Math.min(limit, MAX_PAGE_SIZE) : MAX_PAGE_SIZE;
+            final List<Event> events;
+            try {
+                events = eventService.findAll(fromDate, toDate, cursor, pageSize);
+            } catch (final IllegalArgumentException e) {
+                throw new BadRequestException(String.format("invalid cursor '%s'", cursor), e);
+            }
+            final Response.ResponseBuilder responseBuilder = Response.ok(events);
+            if (events.size() == pageSize) {
+                final Event lastEvent = events.get(events.size() - 1);
+                responseBuilder.header("Next-Cursor", eventService.createCursor(lastEvent));
+            }
+            response = responseBuilder.build();
+        }
+
+        return response;
+    }
+
+    private static LocalDate parseDate(final String date) {
+        try {
+            return date != null ? LocalDate.parse(date) : null;
+        } catch (final DateTimeParseException e) {
+            throw new BadRequestException(String.format("invalid date '%s'", date), e);
+        }
     }
 
     @Path("{eventId}")
@@ -0,0 +1,59 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015, 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.boundary;
+
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.ClientErrorException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static javax.ws.rs.core.Response.Status.REQUEST_ENTITY_TOO_LARGE;
+
+class LimitedOutputStream extends FilterOutputStream {
+
+    private final long maxSize;
+    private long count;
+
+    LimitedOutputStream(@NotNull final OutputStream outputStream, final long maxSize) {
+        super(outputStream);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        checkLimit(1);
+        out.write(b);
+    }
+
+    @Override
+    public void write(@NotNull final byte[] b, final int off, final int len) throws IOException {
+        checkLimit(len);
+        out.write(b, off, len);
+    }
+
+    private void checkLimit(final int len) {
+        count += len;
+        if (count > maxSize) {
+            throw new ClientErrorException(
+                    String.format("upload exceeds the maximum size of %d bytes", maxSize), //NON-NLS
+                    REQUEST_ENTITY_TOO_LARGE);
+        }
+    }
+
+}
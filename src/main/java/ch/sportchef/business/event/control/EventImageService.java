@@ -19,11 +19,31 @@ package ch.sportchef.business.event.control;
 
 import ch.sportchef.business.AverageColorCalculator;
 import ch.sportchef.business.ImageResizer;
+import ch.sportchef.business.configuration.control.ConfigurationService;
+import ch.sportchef.business.configuration.entity.Configuration;
 import ch.sportchef.business.event.entity.Event;
-import org.apache.commons.io.IOUtils;
+import ch.sportchef.business.event.entity.EventImage;
+import ch.sportchef.business.event.entity.EventImageFormat;
+import ch.sportchef.business.event.entity.EventImageSize;
+import ch.sportchef.business.event.entity.ImageUploadStatus;
+import ch.sportchef.business.event.entity.ImageUploadStatus.State;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
 import pl.setblack.badass.Politician;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
@@ -34,22 +54,64 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Slf4j
 @Singleton
 public class EventImageService {
 
-    private static final String FILE_EXTENSION = ".png"; //NON-NLS
-    private static final String FILE_TYPE = "PNG"; //NON-NLS
-    private static final int IMAGE_HEIGHT = 200;
-    private static final int IMAGE_WIDTH = 350;
+    private static final long IMAGE_CACHE_SIZE = 32L * 1024 * 1024;
+    private static final long MAX_CACHED_IMAGE_SIZE = 256L * 1024;
+    private static final int UPLOAD_QUEUE_SIZE = 32;
+    private static final int UPLOAD_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int DEFAULT_IMAGE_COUNT = 14;
 
     private final EventService eventService;
     private final File imageUploadPath;
+    private final ImageStore imageStore;
+    private final long maxUploadSize;
+    private final List<ImageEncoder> imageEncoders;
+    private final Cache<String, EventImage> imageCache;
+    private final Cache<String, ImageUploadStatus> uploadStatus;
+    private final LoadingCache<Integer, String> defaultImageColors;
+    private final ExecutorService uploadExecutor;
+    private final Timer decodeTimer;
+    private final Timer resizeTimer;
+    private final Timer encodeTimer;
+    private final Timer colorTimer;
 
     @Inject
-    public EventImageService(@NotNull final EventService eventService) {
+    public EventImageService(@NotNull final EventService eventService,
+                             @NotNull final ConfigurationService configurationService,
+                             @NotNull final MetricRegistry metricRegistry) {
         this.eventService = eventService;
+        final Configuration configuration = configurationService.getConfiguration();
+        maxUploadSize = configuration.getImageUploadMaxSize();
+        imageEncoders = createImageEncoders(configuration);
 
         // build path to image upload folder
         final String imageUploadFolder = String.format("%s%s.sportchef%simages%sevents", //NON-NLS
@@ -60,54 +122,380 @@ public class EventImageService {
         if (!imageUploadPath.exists()) {
             imageUploadPath.mkdirs();
         }
+        imageStore = new ImageStore(new File(imageUploadPath.getParentFile(), "blobs")); //NON-NLS
+
+        imageCache = CacheBuilder.newBuilder()
+                .maximumWeight(IMAGE_CACHE_SIZE)
+                .weigher((String key, EventImage value) -> value.getData().length)
+                .build();
+
+        uploadStatus = CacheBuilder.newBuilder()
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .build();
+        // every bundled default image is rendered once and then only referenced by the events using it
+        defaultImageColors = CacheBuilder.newBuilder()
+                .build(new CacheLoader<Integer, String>() {
+                    @Override
+                    public String load(@NotNull final Integer index) throws IOException {
+                        return renderDefaultImage(index);
+                    }
+                });
+
+        final BlockingQueue<Runnable> uploadQueue = new ArrayBlockingQueue<>(UPLOAD_QUEUE_SIZE);
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("event-image-%d") //NON-NLS
+                .setDaemon(true)
+                .build();
+        uploadExecutor = new ThreadPoolExecutor(UPLOAD_THREADS, UPLOAD_THREADS, 0L, TimeUnit.MILLISECONDS,
+                uploadQueue, threadFactory);
+
+        decodeTimer = metricRegistry.timer(name(EventImageService.class, "decode")); //NON-NLS
+        resizeTimer = metricRegistry.timer(name(EventImageService.class, "resize")); //NON-NLS
+        encodeTimer = metricRegistry.timer(name(EventImageService.class, "encode")); //NON-NLS
+        colorTimer = metricRegistry.timer(name(EventImageService.class, "color")); //NON-NLS
+        final String queueSizeName = name(EventImageService.class, "queue-size"); //NON-NLS
+        metricRegistry.remove(queueSizeName);
+        metricRegistry.register(queueSizeName, (Gauge<Integer>) uploadQueue::size);
+    }
+
+    private static List<ImageEncoder> createImageEncoders(@NotNull final Configuration configuration) {
+        final Set<EventImageFormat> formats = new LinkedHashSet<>();
+        for (final String formatName : configuration.getImageFormats().split(",")) {
+            final String trimmedFormatName = formatName.trim();
+            if (!trimmedFormatName.isEmpty()) {
+                final EventImageFormat format = EventImageFormat.valueOf(trimmedFormatName.toUpperCase(Locale.ROOT));
+                if (ImageEncoder.isSupported(format)) {
+                    formats.add(format);
+                } else {
+                    log.warn("No image writer available for format '{}', images will not be stored in this format.",
+                            format);
+                }
+            }
+        }
+        // PNG is always stored, it is the fallback for clients and for images uploaded before other formats
+        formats.add(EventImageFormat.PNG);
+
+        final List<ImageEncoder> encoders = new ArrayList<>(formats.size());
+        for (final EventImageFormat format : formats) {
+            final Float quality;
+            switch (format) {
+                case JPEG:
+                    quality = configuration.getImageJpegQuality();
+                    break;
+                case WEBP:
+                    quality = configuration.getImageWebpQuality();
+                    break;
+                default:
+                    quality = null;
+                    break;
+            }
+            encoders.add(new ImageEncoder(format, quality));
+        }
+        return encoders;
+    }
+
+    @PostConstruct
+    public void setupResources() {
+        imageStore.open();
+    }
+
+    @PreDestroy
+    public void cleanupResources() {
+        uploadExecutor.shutdown();
+        imageStore.close();
+    }
+
+    public List<EventImageFormat> getImageFormats() {
+        return imageEncoders.stream()
+                .map(ImageEncoder::getFormat)
+                .collect(Collectors.toList());
+    }
+
+    public EventImage getImage(@NotNull final Long eventId) throws IOException {
+        return getImage(eventId, EventImageSize.MEDIUM);
+    }
+
+    public EventImage getImage(@NotNull final Long eventId, @NotNull final EventImageSize size) throws IOException {
+        return getImage(eventId, size, EventImageFormat.PNG);
+    }
+
+    public EventImage getImage(@NotNull final Long eventId, @NotNull final EventImageSize size,
+                               @NotNull final EventImageFormat format) throws IOException {
+        final String fileName = createFileName(eventId, size, format);
+        final Optional<String> blobId = findBlob(fileName);
+        if (!blobId.isPresent() && format != EventImageFormat.PNG) {
+            // the format was not configured when the image was uploaded
+            return getImage(eventId, size, EventImageFormat.PNG);
+        }
+        if (!blobId.isPresent() && size != EventImageSize.MEDIUM) {
+            // images uploaded before variants were introduced only exist in the medium size
+            return getImage(eventId, EventImageSize.MEDIUM, format);
+        }
+        if (!blobId.isPresent()) {
+            throw new NotFoundException(String.format("event with id '%d' has no image", eventId)); //NON-NLS
+        }
+
+        // blobs never change, their content hash is a strong entity tag and a stable cache key
+        final String entityTag = blobId.get();
+        final EventImage cachedImage = imageCache.getIfPresent(entityTag);
+        if (cachedImage != null) {
+            return cachedImage;
+        }
+
+        final Optional<EventImage> image = readBlob(entityTag, format);
+        if (image.isPresent()) {
+            return image.get();
+        }
+        // the blob was released by a concurrent upload or delete, the name now refers to its successor or is gone
+        if (imageStore.find(fileName).filter(entityTag::equals).isPresent()) {
+            throw new NotFoundException(String.format("image '%s' of event with id '%d' is missing", //NON-NLS
+                    fileName, eventId));
+        }
+        return getImage(eventId, size, format);
+    }
+
+    private Optional<EventImage> readBlob(@NotNull final String blobId, @NotNull final EventImageFormat format)
+            throws IOException {
+        final Path path = imageStore.getPath(blobId);
+        try {
+            final long length = Files.size(path);
+            if (length > MAX_CACHED_IMAGE_SIZE) {
+                // too big for the cache, will be streamed from the file system
+                return Optional.of(new EventImage(path, length, blobId, format));
+            }
+            return Optional.of(imageCache.get(blobId, () -> new EventImage(Files.readAllBytes(path), blobId, format)));
+        } catch (final NoSuchFileException e) {
+            return Optional.empty();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof NoSuchFileException) {
+                return Optional.empty();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private Optional<String> findBlob(@NotNull final String fileName) throws IOException {
+        final Optional<String> blobId = imageStore.find(fileName);
+        if (blobId.isPresent()) {
+            return blobId;
+        }
+
+        // images stored before the image store was introduced are moved into it on first access
+        final File legacyFile = new File(imageUploadPath, fileName);
+        if (!legacyFile.exists()) {
+            return Optional.empty();
+        }
+        return imageStore.migrate(fileName, legacyFile.toPath());
+    }
+
+    public long getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    public Path createUploadFile() throws IOException {
+        return Files.createTempFile(imageUploadPath.toPath(), "upload-", ".tmp"); //NON-NLS
+    }
+
+    public String submitImage(@NotNull final Long eventId, @NotNull final Path imageFile) throws IOException {
+        // every upload gets its own status, concurrent uploads for the same event must not overwrite each other
+        final String jobId = UUID.randomUUID().toString();
+        final String jobKey = createJobKey(eventId, jobId);
+        uploadStatus.put(jobKey, new ImageUploadStatus(State.QUEUED, null));
+        try {
+            uploadExecutor.execute(() -> processImage(eventId, jobKey, imageFile));
+        } catch (final RejectedExecutionException e) {
+            uploadStatus.invalidate(jobKey);
+            Files.deleteIfExists(imageFile);
+            throw e;
+        }
+        return jobId;
     }
 
-    public byte[] getImage(@NotNull final Long eventId) throws IOException {
-        final File file = new File(imageUploadPath, String.format("%d%s", eventId, FILE_EXTENSION)); //NON-NLS
-        if (file.exists()) {
-            return Files.readAllBytes(file.toPath());
+    public Optional<ImageUploadStatus> getUploadStatus(@NotNull final Long eventId, @NotNull final String jobId) {
+        return Optional.ofNullable(uploadStatus.getIfPresent(createJobKey(eventId, jobId)));
+    }
+
+    private static String createJobKey(@NotNull final Long eventId, @NotNull final String jobId) {
+        return String.format("%d/%s", eventId, jobId); //NON-NLS
+    }
+
+    private void processImage(@NotNull final Long eventId, @NotNull final String jobKey,
+                              @NotNull final Path imageFile) {
+        uploadStatus.put(jobKey, new ImageUploadStatus(State.PROCESSING, null));
+        try {
+            uploadImage(eventId, imageFile);
+            uploadStatus.put(jobKey, new ImageUploadStatus(State.DONE, null));
+        } catch (@SuppressWarnings("PMD.AvoidCatchingGenericException") final IOException | RuntimeException e) {
+            log.error("Processing image for event '{}' failed!", eventId, e);
+            uploadStatus.put(jobKey, new ImageUploadStatus(State.FAILED, e.getMessage()));
+        } finally {
+            try {
+                Files.deleteIfExists(imageFile);
+            } catch (final IOException e) {
+                log.warn("Can't delete uploaded file '{}'!", imageFile, e);
+            }
         }
-        throw new NotFoundException(String.format("event with id '%d' has no image", eventId)); //NON-NLS
     }
 
     public void uploadImage(@NotNull final Long eventId, @NotNull final byte[] image) throws IOException {
-        final InputStream imageInputStream = new ByteArrayInputStream(image);
-        final BufferedImage inputImage = ImageIO.read(imageInputStream);
-        final BufferedImage outputImage = ImageResizer.resizeAndCrop(inputImage, IMAGE_WIDTH, IMAGE_HEIGHT);
+        findEvent(eventId);
+        storeImage(eventId, ImageIO.createImageInputStream(new ByteArrayInputStream(image)));
+    }
 
-        final File file = new File(imageUploadPath, String.format("%d%s", eventId, FILE_EXTENSION)); //NON-NLS
-        ImageIO.write(outputImage, FILE_TYPE, file);
+    public void uploadImage(@NotNull final Long eventId, @NotNull final Path imageFile) throws IOException {
+        // the event may have been deleted while the upload was queued
+        findEvent(eventId);
+        // reads directly from the file without copying it to the heap first
+        storeImage(eventId, ImageIO.createImageInputStream(imageFile.toFile()));
+    }
+
+    private void storeImage(@NotNull final Long eventId, @NotNull final ImageInputStream imageInputStream)
+            throws IOException {
+        final Map<String, String> storedBlobs = new HashMap<>();
+        try {
+            final String averageColor = renderImage(String.valueOf(eventId), imageInputStream, storedBlobs);
+            updateBackgroundColor(eventId, averageColor);
+        } catch (@SuppressWarnings("PMD.AvoidCatchingGenericException") final IOException | RuntimeException e) {
+            // don't leave a partial image behind, nor one for an event deleted while it was rendered
+            storedBlobs.forEach(imageStore::delete);
+            throw e;
+        }
+    }
+
+    private String renderImage(@NotNull final String baseName, @NotNull final ImageInputStream imageInputStream,
+                               @NotNull final Map<String, String> storedBlobs) throws IOException {
+        final BufferedImage inputImage;
+        try (final Timer.Context ignored = decodeTimer.time(); final ImageInputStream stream = imageInputStream) {
+            inputImage = readSubsampled(baseName, stream);
+        }
+
+        // render the variants from large to small, each one is a good source for the next smaller one
+        final EventImageSize[] sizes = EventImageSize.values();
+        final Map<EventImageSize, BufferedImage> outputImages = new EnumMap<>(EventImageSize.class);
+        BufferedImage sourceImage = inputImage;
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            final EventImageSize size = sizes[i];
+            final BufferedImage outputImage;
+            try (final Timer.Context ignored = resizeTimer.time()) {
+                outputImage = ImageResizer.resizeAndCrop(sourceImage, size.getWidth(), size.getHeight());
+            }
+            writeImage(baseName, size, outputImage, storedBlobs);
+            outputImages.put(size, outputImage);
+            sourceImage = outputImage;
+        }
 
         final String averageColor;
-        averageColor = AverageColorCalculator.getAverageColorAsHex(outputImage);
+        try (final Timer.Context ignored = colorTimer.time()) {
+            averageColor = AverageColorCalculator.getAverageColorAsHex(outputImages.get(EventImageSize.MEDIUM));
+        }
 
         inputImage.flush();
-        outputImage.flush();
+        outputImages.values().forEach(BufferedImage::flush);
+
+        return averageColor;
+    }
 
-        final Event event = eventService.findByEventId(eventId).get();
+    private Event findEvent(@NotNull final Long eventId) {
+        return eventService.findByEventId(eventId).orElseThrow(() ->
+                new NotFoundException(String.format("event with id '%d' not found", eventId))); //NON-NLS
+    }
+
+    private void updateBackgroundColor(@NotNull final Long eventId, @NotNull final String averageColor) {
+        final Event event = findEvent(eventId);
         final Event eventToUpdate = event.toBuilder()
                 .cssBackgroundColor(averageColor)
                 .build();
         eventService.update(eventToUpdate);
     }
 
+    private void writeImage(@NotNull final String baseName, @NotNull final EventImageSize size,
+                            @NotNull final BufferedImage image, @NotNull final Map<String, String> storedBlobs)
+            throws IOException {
+        for (final ImageEncoder imageEncoder : imageEncoders) {
+            final EventImageFormat format = imageEncoder.getFormat();
+            final byte[] outputBytes;
+            try (final Timer.Context ignored = encodeTimer.time()) {
+                outputBytes = imageEncoder.encode(image);
+            }
+
+            final String fileName = createFileName(baseName, size, format);
+            storedBlobs.put(fileName, imageStore.store(fileName, outputBytes));
+        }
+    }
+
+    private static String createFileName(@NotNull final Long eventId, @NotNull final EventImageSize size,
+                                         @NotNull final EventImageFormat format) {
+        return createFileName(String.valueOf(eventId), size, format);
+    }
+
+    private static String createFileName(@NotNull final String baseName, @NotNull final EventImageSize size,
+                                         @NotNull final EventImageFormat format) {
+        // the medium size keeps the file name used before variants were introduced
+        return size == EventImageSize.MEDIUM
+                ? String.format("%s%s", baseName, format.getFileExtension()) //NON-NLS
+                : String.format("%s-%s%s", baseName, size.name().toLowerCase(Locale.ROOT), //NON-NLS
+                        format.getFileExtension());
+    }
+
+    private static BufferedImage readSubsampled(@NotNull final String baseName,
+                                                @NotNull final ImageInputStream stream) throws IOException {
+        final Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            throw new IOException(String.format("unsupported image format for image '%s'", baseName)); //NON-NLS
+        }
+
+        final ImageReader reader = readers.next();
+        try {
+            reader.setInput(stream, true, true);
+            // skip pixels while decoding instead of scaling a full resolution image down afterwards
+            final int subsampling = ImageResizer.calculateSubsampling(reader.getWidth(0), reader.getHeight(0),
+                    EventImageSize.LARGE.getWidth(), EventImageSize.LARGE.getHeight());
+            final ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
     public void chooseRandomDefaultImage(@NotNull final Long eventId) {
-        final int index = new Random().nextInt(14) + 1;
-        final String filename = String.format("default-event-image-%03d.png", index);
+        final int index = new Random().nextInt(DEFAULT_IMAGE_COUNT) + 1;
         Politician.beatAroundTheBush(() -> {
-            try (final InputStream inputStream =
-                         Thread.currentThread().getContextClassLoader().getResourceAsStream(filename)) {
-                final byte[] image = IOUtils.toByteArray(inputStream);
-                uploadImage(eventId, image);
+            final String averageColor = defaultImageColors.get(index);
+            final String baseName = createDefaultImageName(index);
+            for (final EventImageSize size : EventImageSize.values()) {
+                for (final ImageEncoder imageEncoder : imageEncoders) {
+                    final EventImageFormat format = imageEncoder.getFormat();
+                    imageStore.copy(createFileName(baseName, size, format), createFileName(eventId, size, format));
+                }
             }
+            updateBackgroundColor(eventId, averageColor);
         });
     }
 
+    private String renderDefaultImage(final int index) throws IOException {
+        final String baseName = createDefaultImageName(index);
+        final String resourceName = baseName.concat(EventImageFormat.PNG.getFileExtension());
+        try (final InputStream inputStream =
+                     Thread.currentThread().getContextClassLoader().getResourceAsStream(resourceName)) {
+            return renderImage(baseName, ImageIO.createImageInputStream(inputStream), new HashMap<>());
+        }
+    }
+
+    private static String createDefaultImageName(final int index) {
+        return String.format("default-event-image-%03d", index); //NON-NLS
+    }
+
     public void deleteImage(@NotNull final Long eventId) {
-        final File file = new File(imageUploadPath, eventId + FILE_EXTENSION);
-        if (file.exists()) {
-            file.delete();
-        } else {
+        boolean deleted = false;
+        for (final EventImageSize size : EventImageSize.values()) {
+            for (final EventImageFormat format : EventImageFormat.values()) {
+                final String fileName = createFileName(eventId, size, format);
+                deleted |= imageStore.delete(fileName);
+                deleted |= new File(imageUploadPath, fileName).delete();
+            }
+        }
+        if (!deleted) {
             throw new NotFoundException(String.format("event with id '%d' has no image", eventId)); //NON-NLS
         }
     }
@@ -18,18 +18,27 @@
 package ch.sportchef.business.event.control;
 
 import ch.sportchef.business.event.entity.Event;
+import lombok.Value;
 
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
-import static java.util.stream.Collectors.toList;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 class EventRepository implements Serializable {
 
@@ -39,6 +48,8 @@ class EventRepository implements Serializable {
 
     private final AtomicLong eventSeq = new AtomicLong(0);
 
+    private transient NavigableMap<EventKey, Event> timeIndex = new ConcurrentSkipListMap<>();
+
     Event create(@NotNull final Event event) {
         final Long eventId = eventSeq.incrementAndGet();
         final long version = event.hashCode();
@@ -47,6 +58,7 @@ class EventRepository implements Serializable {
                 .version(version)
                 .build();
         events.put(eventId, eventToCreate);
+        timeIndex.put(EventKey.of(eventToCreate), eventToCreate);
         return eventToCreate;
     }
 
@@ -60,6 +72,14 @@ class EventRepository implements Serializable {
                 .version(version)
                 .build();
         events.put(event.getEventId(), eventToUpdate);
+        final EventKey key = EventKey.of(eventToUpdate);
+        timeIndex.put(key, eventToUpdate);
+        if (previousEvent != event) {
+            final EventKey previousKey = EventKey.of(previousEvent);
+            if (!previousKey.equals(key)) {
+                timeIndex.remove(previousKey);
+            }
+        }
         return eventToUpdate;
     }
 
@@ -68,16 +88,97 @@ class EventRepository implements Serializable {
     }
 
     List<Event> findAll() {
-       return events.values().stream()
-               .sorted((event1, event2) -> {
-                   final LocalDateTime event1DateTime = LocalDateTime.of(event1.getDate(), event1.getTime());
-                   final LocalDateTime event2DateTime = LocalDateTime.of(event2.getDate(), event2.getTime());
-                   return event1DateTime.compareTo(event2DateTime);
-               })
-               .collect(toList());
+        return new ArrayList<>(timeIndex.values());
+    }
+
+    Stream<Event> streamAll() {
+        return timeIndex.values().stream();
+    }
+
+    List<Event> findAll(final LocalDate from, final LocalDate to, final EventKey after, final int limit) {
+        NavigableMap<EventKey, Event> range = timeIndex;
+        final EventKey fromKey = from != null ? new EventKey(from, LocalTime.MIN, Long.MIN_VALUE) : null;
+        final EventKey lowerKey;
+        if (after != null && (fromKey == null || after.compareTo(fromKey) >= 0)) {
+            lowerKey = after;
+            range = range.tailMap(after, false);
+        } else {
+            lowerKey = fromKey;
+            if (fromKey != null) {
+                range = range.tailMap(fromKey, true);
+            }
+        }
+        if (to != null) {
+            final EventKey toKey = new EventKey(to, LocalTime.MAX, Long.MAX_VALUE);
+            if (lowerKey != null && lowerKey.compareTo(toKey) > 0) {
+                // the cursor is already past the end of the range, there is nothing left to page through
+                return new ArrayList<>();
+            }
+            range = range.headMap(toKey, true);
+        }
+        final List<Event> page = new ArrayList<>(Math.min(limit, 128));
+        for (final Event event : range.values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(event);
+        }
+        return page;
     }
 
     void delete(final long eventId) {
-        events.remove(eventId);
+        final Event event = events.remove(eventId);
+        if (event != null) {
+            timeIndex.remove(EventKey.of(event));
+        }
+    }
+
+    private void readObject(@NotNull final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        timeIndex = new ConcurrentSkipListMap<>();
+        events.values().forEach(event -> timeIndex.put(EventKey.of(event), event));
+    }
+
+    @Value
+    static class EventKey implements Comparable<EventKey>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private static final String CURSOR_SEPARATOR = "/";
+
+        private LocalDate date;
+        private LocalTime time;
+        private long eventId;
+
+        static EventKey of(@NotNull final Event event) {
+            final LocalDate date = event.getDate() != null ? event.getDate() : LocalDate.MIN;
+            final LocalTime time = event.getTime() != null ? event.getTime() : LocalTime.MIN;
+            return new EventKey(date, time, event.getEventId());
+        }
+
+        static EventKey fromCursor(@NotNull final String cursor) {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor), UTF_8);
+            final String[] parts = decoded.split(CURSOR_SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(String.format("invalid cursor '%s'", cursor));
+            }
+            return new EventKey(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        }
+
+        String toCursor() {
+            final String decoded = String.join(CURSOR_SEPARATOR, date.toString(), time.toString(), Long.toString(eventId));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(UTF_8));
+        }
+
+        @Override
+        public int compareTo(@NotNull final EventKey other) {
+            int result = date.compareTo(other.date);
+            if (result == 0) {
+                result = time.compareTo(other.time);
+            }
+            if (result == 0) {
+                result = Long.compare(eventId, other.eventId);
+            }
+            return result;
+        }
     }
 }
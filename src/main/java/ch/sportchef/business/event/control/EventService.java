@@ -29,8 +29,11 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Singleton
 @Timed(name = "Timed: EventService")
@@ -72,6 +75,27 @@ public class EventService {
         return controller.query(EventRepository::findAll);
     }
 
+    public Stream<Event> streamAll() {
+        return controller.query(EventRepository::streamAll);
+    }
+
+    public List<Event> findAll(final LocalDate from, final LocalDate to, final String cursor, final int limit) {
+        final EventRepository.EventKey after = cursor != null ? parseCursor(cursor) : null;
+        return controller.query(ctrl -> ctrl.findAll(from, to, after, limit));
+    }
+
+    public String createCursor(@NotNull final Event event) {
+        return EventRepository.EventKey.of(event).toCursor();
+    }
+
+    private static EventRepository.EventKey parseCursor(@NotNull final String cursor) {
+        try {
+            return EventRepository.EventKey.fromCursor(cursor);
+        } catch (final DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format("invalid cursor '%s'", cursor), e);
+        }
+    }
+
     public void delete(@NotNull final Long eventId) {
         controller.execute(mgr -> mgr.delete(eventId));
     }
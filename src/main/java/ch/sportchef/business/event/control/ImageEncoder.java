@@ -0,0 +1,92 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015, 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import ch.sportchef.business.event.entity.EventImageFormat;
+import lombok.Value;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.validation.constraints.NotNull;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+@Value
+class ImageEncoder {
+
+    private EventImageFormat format;
+
+    private Float quality;
+
+    static boolean isSupported(@NotNull final EventImageFormat format) {
+        return ImageIO.getImageWritersByFormatName(format.getFormatName()).hasNext();
+    }
+
+    byte[] encode(@NotNull final BufferedImage image) throws IOException {
+        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format.getFormatName());
+        if (!writers.hasNext()) {
+            throw new IOException(String.format("no image writer for format '%s'", format)); //NON-NLS
+        }
+
+        final ImageWriter writer = writers.next();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (final ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(prepareImage(image), null, null), createWriteParam(writer));
+        } finally {
+            writer.dispose();
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private ImageWriteParam createWriteParam(@NotNull final ImageWriter writer) {
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        if (quality != null && param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            final String[] compressionTypes = param.getCompressionTypes();
+            if (param.getCompressionType() == null && compressionTypes != null && compressionTypes.length > 0) {
+                param.setCompressionType(compressionTypes[0]);
+            }
+            param.setCompressionQuality(quality);
+        }
+        return param;
+    }
+
+    private BufferedImage prepareImage(@NotNull final BufferedImage image) {
+        if (format != EventImageFormat.JPEG || !image.getColorModel().hasAlpha()) {
+            return image;
+        }
+
+        // JPEG has no alpha channel, flatten the image onto a white background
+        final BufferedImage opaqueImage = new BufferedImage(image.getWidth(), image.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2d = opaqueImage.createGraphics();
+        g2d.drawImage(image, 0, 0, Color.WHITE, null);
+        g2d.dispose();
+        return opaqueImage;
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015, 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+class ImageRepository implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, String> references = new ConcurrentHashMap<>();
+
+    private transient Map<String, Integer> referenceCounts = new ConcurrentHashMap<>();
+
+    Optional<String> find(@NotNull final String name) {
+        return Optional.ofNullable(references.get(name));
+    }
+
+    int countReferences(@NotNull final String blobId) {
+        return referenceCounts.getOrDefault(blobId, 0);
+    }
+
+    String link(@NotNull final String name, @NotNull final String blobId) {
+        referenceCounts.merge(blobId, 1, Integer::sum);
+        return release(references.put(name, blobId));
+    }
+
+    String unlink(@NotNull final String name) {
+        return release(references.remove(name));
+    }
+
+    // returns the blob if its last reference was released, it can be deleted then
+    private String release(final String blobId) {
+        if (blobId == null) {
+            return null;
+        }
+        final Integer count = referenceCounts.computeIfPresent(blobId, (key, value) -> value > 1 ? value - 1 : null);
+        return count == null ? blobId : null;
+    }
+
+    private void readObject(@NotNull final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        referenceCounts = new ConcurrentHashMap<>();
+        references.values().forEach(blobId -> referenceCounts.merge(blobId, 1, Integer::sum));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015, 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import ch.sportchef.business.PersistenceManager;
+import lombok.extern.slf4j.Slf4j;
+import pl.setblack.airomem.core.PersistenceController;
+
+import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+@Slf4j
+class ImageStore {
+
+    private final File blobPath;
+
+    private PersistenceController<ImageRepository> controller;
+
+    ImageStore(@NotNull final File blobPath) {
+        this.blobPath = blobPath;
+        if (!blobPath.exists()) {
+            blobPath.mkdirs();
+        }
+    }
+
+    void open() {
+        controller = PersistenceManager.createController(ImageRepository.class, ImageRepository::new);
+    }
+
+    void close() {
+        controller.close();
+    }
+
+    Optional<String> find(@NotNull final String name) {
+        return controller.query(repository -> repository.find(name));
+    }
+
+    int countReferences(@NotNull final String blobId) {
+        return controller.query(repository -> repository.countReferences(blobId));
+    }
+
+    Path getPath(@NotNull final String blobId) {
+        return new File(blobPath, blobId).toPath();
+    }
+
+    synchronized String store(@NotNull final String name, @NotNull final byte[] data) throws IOException {
+        final String blobId = createBlobId(data);
+        final Path path = getPath(blobId);
+        if (!Files.exists(path)) {
+            // identical content is stored only once, writing it again is a no-op
+            final Path tempFile = Files.createTempFile(blobPath.toPath(), "blob-", ".tmp"); //NON-NLS
+            Files.write(tempFile, data);
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        link(name, blobId);
+        return blobId;
+    }
+
+    synchronized Optional<String> migrate(@NotNull final String name, @NotNull final Path legacyFile)
+            throws IOException {
+        // a concurrent read may have migrated or a delete removed the file while this one waited for the lock
+        final Optional<String> blobId = find(name);
+        if (blobId.isPresent() || !Files.exists(legacyFile)) {
+            return blobId;
+        }
+        final byte[] data;
+        try {
+            data = Files.readAllBytes(legacyFile);
+        } catch (final NoSuchFileException e) {
+            return find(name);
+        }
+        final String storedBlobId = store(name, data);
+        Files.deleteIfExists(legacyFile);
+        return Optional.of(storedBlobId);
+    }
+
+    synchronized void copy(@NotNull final String sourceName, @NotNull final String targetName) throws IOException {
+        final String blobId = find(sourceName).orElseThrow(() ->
+                new IOException(String.format("no image stored with name '%s'", sourceName))); //NON-NLS
+        link(targetName, blobId);
+    }
+
+    synchronized boolean delete(@NotNull final String name) {
+        final boolean exists = find(name).isPresent();
+        if (exists) {
+            deleteBlob(controller.executeAndQuery(repository -> repository.unlink(name)));
+        }
+        return exists;
+    }
+
+    synchronized boolean delete(@NotNull final String name, @NotNull final String blobId) {
+        // only unlinks the name if no one else has stored an image under it in the meantime
+        final boolean linked = find(name).filter(blobId::equals).isPresent();
+        if (linked) {
+            deleteBlob(controller.executeAndQuery(repository -> repository.unlink(name)));
+        }
+        return linked;
+    }
+
+    private void link(@NotNull final String name, @NotNull final String blobId) {
+        deleteBlob(controller.executeAndQuery(repository -> repository.link(name, blobId)));
+    }
+
+    private void deleteBlob(final String blobId) {
+        if (blobId != null) {
+            try {
+                Files.deleteIfExists(getPath(blobId));
+            } catch (final IOException e) {
+                log.warn("Can't delete unreferenced image '{}'!", blobId, e);
+            }
+        }
+    }
+
+    private static String createBlobId(@NotNull final byte[] data) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(data); //NON-NLS
+            return String.format("%064x", new BigInteger(1, hash)); //NON-NLS
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
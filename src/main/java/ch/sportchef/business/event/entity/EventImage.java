@@ -0,0 +1,56 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015, 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.entity;
+
+import lombok.Value;
+
+import javax.validation.constraints.NotNull;
+import java.nio.file.Path;
+
+@Value
+public class EventImage {
+
+    private byte[] data;
+
+    private Path path;
+
+    private long length;
+
+    private String entityTag;
+
+    private EventImageFormat format;
+
+    public EventImage(@NotNull final byte[] data, @NotNull final String entityTag,
+                      @NotNull final EventImageFormat format) {
+        this.data = data;
+        this.path = null;
+        this.length = data.length;
+        this.entityTag = entityTag;
+        this.format = format;
+    }
+
+    public EventImage(@NotNull final Path path, final long length, @NotNull final String entityTag,
+                      @NotNull final EventImageFormat format) {
+        this.data = null;
+        this.path = path;
+        this.length = length;
+        this.entityTag = entityTag;
+        this.format = format;
+    }
+
+}
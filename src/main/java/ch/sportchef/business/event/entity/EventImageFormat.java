@@ -0,0 +1,39 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015, 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.entity;
+
+import lombok.Getter;
+
+@Getter
+public enum EventImageFormat {
+
+    PNG("image/png", "png", ".png"), //NON-NLS
+    JPEG("image/jpeg", "jpeg", ".jpg"), //NON-NLS
+    WEBP("image/webp", "webp", ".webp"); //NON-NLS
+
+    private final String mediaType;
+    private final String formatName;
+    private final String fileExtension;
+
+    EventImageFormat(final String mediaType, final String formatName, final String fileExtension) {
+        this.mediaType = mediaType;
+        this.formatName = formatName;
+        this.fileExtension = fileExtension;
+    }
+
+}
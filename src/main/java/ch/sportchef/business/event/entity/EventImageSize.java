@@ -0,0 +1,37 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015, 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.entity;
+
+import lombok.Getter;
+
+@Getter
+public enum EventImageSize {
+
+    SMALL(175, 100),
+    MEDIUM(350, 200),
+    LARGE(700, 400);
+
+    private final int width;
+    private final int height;
+
+    EventImageSize(final int width, final int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+}
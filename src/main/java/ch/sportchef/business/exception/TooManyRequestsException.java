@@ -0,0 +1,33 @@
+/**
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2015 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/ <http://www.gnu.org/licenses/>>.
+ */
+package ch.sportchef.business.exception;
+
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    @Getter
+    private final long retryAfter;
+
+    public TooManyRequestsException(@NotNull final String message, final long retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
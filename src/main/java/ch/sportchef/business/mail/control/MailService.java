@@ -0,0 +1,218 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.mail.control;
+
+import ch.sportchef.business.configuration.control.ConfigurationService;
+import ch.sportchef.business.configuration.entity.Configuration;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.mail.DefaultAuthenticator;
+import org.apache.commons.mail.Email;
+import org.apache.commons.mail.EmailException;
+import org.apache.commons.mail.SimpleEmail;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Slf4j
+@Singleton
+public class MailService {
+
+    private static final int MAIL_QUEUE_SIZE = 1000;
+    private static final int MAIL_THREADS = 2;
+    private static final int MAIL_BATCH_SIZE = 50;
+    private static final int MAX_DELIVERY_ATTEMPTS = 5;
+    private static final long INITIAL_RETRY_DELAY = 1000L;
+
+    private final ConfigurationService configurationService;
+    private final BlockingQueue<OutgoingMail> mailQueue;
+    private final ExecutorService deliveryExecutor;
+    private final ScheduledExecutorService retryExecutor;
+    private final Meter sentMails;
+    private final Meter retriedMails;
+    private final Meter failedMails;
+
+    @Inject
+    public MailService(@NotNull final ConfigurationService configurationService,
+                       @NotNull final MetricRegistry metricRegistry) {
+        this.configurationService = configurationService;
+
+        mailQueue = new ArrayBlockingQueue<>(MAIL_QUEUE_SIZE);
+        deliveryExecutor = Executors.newFixedThreadPool(MAIL_THREADS, new ThreadFactoryBuilder()
+                .setNameFormat("mail-delivery-%d") //NON-NLS
+                .setDaemon(true)
+                .build());
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("mail-retry-%d") //NON-NLS
+                .setDaemon(true)
+                .build());
+        for (int i = 0; i < MAIL_THREADS; i++) {
+            deliveryExecutor.execute(this::deliverMails);
+        }
+
+        sentMails = metricRegistry.meter(name(MailService.class, "sent")); //NON-NLS
+        retriedMails = metricRegistry.meter(name(MailService.class, "retried")); //NON-NLS
+        failedMails = metricRegistry.meter(name(MailService.class, "failed")); //NON-NLS
+        final String queueSizeName = name(MailService.class, "queue-size"); //NON-NLS
+        metricRegistry.remove(queueSizeName);
+        metricRegistry.register(queueSizeName, (Gauge<Integer>) mailQueue::size);
+    }
+
+    @PreDestroy
+    public void cleanupResources() {
+        deliveryExecutor.shutdownNow();
+        retryExecutor.shutdownNow();
+        if (!mailQueue.isEmpty()) {
+            log.warn("Shutting down with {} undelivered mails in the queue!", mailQueue.size());
+        }
+    }
+
+    public void sendMail(@NotNull final String to, @NotNull final String subject, @NotNull final String message)
+            throws EmailException {
+        final Configuration configuration = configurationService.getConfiguration();
+        final Email mail = new SimpleEmail();
+        mail.setHostName(configuration.getSMTPServer());
+        mail.setSmtpPort(configuration.getSMTPPort());
+        mail.setAuthenticator(new DefaultAuthenticator(configuration.getSMTPUser(), configuration.getSMTPPassword()));
+        mail.setSSLOnConnect(configuration.getSMTPSSL());
+        mail.setFrom(configuration.getSMTPFrom());
+        mail.setSubject(subject);
+        mail.setMsg(message);
+        mail.addTo(to);
+
+        // invalid mails fail here already, only the delivery happens in the background
+        mail.buildMimeMessage();
+        if (!mailQueue.offer(new OutgoingMail(mail.getMailSession(), mail.getMimeMessage(), 1))) {
+            throw new RejectedExecutionException("mail queue is full"); //NON-NLS
+        }
+    }
+
+    public int getQueueSize() {
+        return mailQueue.size();
+    }
+
+    private void deliverMails() {
+        final List<OutgoingMail> batch = new ArrayList<>(MAIL_BATCH_SIZE);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(mailQueue.take());
+                mailQueue.drainTo(batch, MAIL_BATCH_SIZE - 1);
+                try {
+                    deliverBatch(batch);
+                } catch (@SuppressWarnings("PMD.AvoidCatchingGenericException") final RuntimeException e) {
+                    // keep the worker alive, the mails of this batch are lost
+                    failedMails.mark(batch.size());
+                    log.error("Delivering {} mails failed!", batch.size(), e);
+                }
+                batch.clear();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliverBatch(@NotNull final List<OutgoingMail> batch) {
+        // all mails are built from the same configuration, one connection is used for the whole batch
+        try (final SmtpConnection connection = new SmtpConnection(batch.get(0).getSession())) {
+            for (final OutgoingMail mail : batch) {
+                try {
+                    connection.send(mail.getMessage());
+                    sentMails.mark();
+                } catch (final MessagingException e) {
+                    retryLater(mail, e);
+                }
+            }
+        } catch (final MessagingException e) {
+            // connecting failed, no mail of the batch was sent
+            batch.forEach(mail -> retryLater(mail, e));
+        }
+    }
+
+    private void retryLater(@NotNull final OutgoingMail mail, @NotNull final MessagingException e) {
+        if (mail.getAttempt() >= MAX_DELIVERY_ATTEMPTS) {
+            failedMails.mark();
+            log.error("Giving up delivering mail after {} attempts!", mail.getAttempt(), e);
+        } else {
+            retriedMails.mark();
+            final long delay = INITIAL_RETRY_DELAY << (mail.getAttempt() - 1);
+            log.warn("Delivering mail failed, retrying in {} ms: {}", delay, e.getMessage());
+            final OutgoingMail retry = new OutgoingMail(mail.getSession(), mail.getMessage(), mail.getAttempt() + 1);
+            retryExecutor.schedule(() -> requeue(retry), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void requeue(@NotNull final OutgoingMail mail) {
+        if (!mailQueue.offer(mail)) {
+            failedMails.mark();
+            log.error("Mail queue is full, dropping mail after {} attempts!", mail.getAttempt());
+        }
+    }
+
+    @Value
+    private static class OutgoingMail {
+        private Session session;
+        private MimeMessage message;
+        private int attempt;
+    }
+
+    private static final class SmtpConnection implements AutoCloseable {
+
+        private final Transport transport;
+
+        SmtpConnection(@NotNull final Session session) throws MessagingException {
+            transport = session.getTransport("smtp"); //NON-NLS
+            transport.connect();
+        }
+
+        void send(@NotNull final MimeMessage message) throws MessagingException {
+            transport.sendMessage(message, message.getAllRecipients());
+        }
+
+        @Override
+        public void close() {
+            try {
+                transport.close();
+            } catch (final MessagingException e) {
+                // the mails were sent already, retrying them would deliver them twice
+                log.warn("Can't close the SMTP connection!", e);
+            }
+        }
+    }
+
+}
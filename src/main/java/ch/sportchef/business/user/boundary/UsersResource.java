@@ -17,28 +17,37 @@
  */
 package ch.sportchef.business.user.boundary;
 
+import ch.sportchef.business.JsonStreamingOutput;
+import ch.sportchef.business.authentication.entity.Role;
 import ch.sportchef.business.user.control.UserService;
 import ch.sportchef.business.user.entity.User;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Providers;
 import java.net.URI;
 import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
 
 @Path("users")
 @Produces(MediaType.APPLICATION_JSON)
 public class UsersResource {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final UserService userService;
 
     @Inject
@@ -55,9 +64,54 @@ public class UsersResource {
     }
 
     @GET
-    public Response findAll() {
-        final List<User> users = userService.findAll();
-        return Response.ok(users).build();
+    public Response findAll(@QueryParam("role") final String role,
+                            @QueryParam("name") final String namePrefix,
+                            @QueryParam("cursor") final String cursor,
+                            @QueryParam("limit") final Integer limit,
+                            @QueryParam("stream") final boolean stream,
+                            @Context final Providers providers) {
+        final Response response;
+        final boolean paged = role != null || namePrefix != null || cursor != null || limit != null;
+
+        if (stream) {
+            if (paged) {
+                throw new BadRequestException("streaming can't be combined with paging parameters");
+            }
+            final Stream<User> users = userService.streamAll();
+            response = Response.ok(new JsonStreamingOutput<>(providers, users), MediaType.APPLICATION_JSON_TYPE)
+                    .build();
+        } else if (!paged) {
+            final List<User> users = userService.findAll();
+            response = Response.ok(users).build();
+        } else {
+            if (limit != null && limit < 1) {
+                throw new BadRequestException(String.format("invalid limit '%d'", limit));
+            }
+            final int pageSize = limit != null ? Math.min(limit, MAX_PAGE_SIZE) : MAX_PAGE_SIZE;
+            final Role userRole = parseRole(role);
+            final List<User> users;
+            try {
+                users = userService.findAll(userRole, namePrefix, cursor, pageSize);
+            } catch (final IllegalArgumentException e) {
+                throw new BadRequestException(String.format("invalid cursor '%s'", cursor), e);
+            }
+            final Response.ResponseBuilder responseBuilder = Response.ok(users);
+            if (users.size() == pageSize) {
+                final User lastUser = users.get(users.size() - 1);
+                responseBuilder.header("Next-Cursor", userService.createCursor(lastUser, namePrefix));
+            }
+            response = responseBuilder.build();
+        }
+
+        return response;
+    }
+
+    private static Role parseRole(final String role) {
+        try {
+            return role != null ? Role.valueOf(role.trim().toUpperCase(Locale.ROOT)) : null;
+        } catch (final IllegalArgumentException e) {
+            throw new BadRequestException(String.format("invalid role '%s'", role), e);
+        }
     }
 
     @Path("{userId}")
@@ -17,31 +17,56 @@
  */
 package ch.sportchef.business.user.control;
 
+import ch.sportchef.business.authentication.entity.Role;
 import ch.sportchef.business.exception.ExpectationFailedException;
 import ch.sportchef.business.user.entity.User;
 
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.ConcurrentModificationException;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
-import static java.util.Comparator.comparingLong;
-import static java.util.stream.Collectors.toList;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 class UserRepository implements Serializable {
 
     private static final long serialVersionUID = 1L;
+    private static final char NAME_INDEX_SEPARATOR = '\u0000';
 
     private final Map<Long, User> users = new ConcurrentHashMap<>();
 
     private final AtomicLong userSeq = new AtomicLong(0);
 
+    private transient Map<String, Long> emailIndex;
+    private transient NavigableMap<Long, User> userIdIndex;
+    private transient Map<Role, NavigableSet<Long>> roleIndex;
+    private transient NavigableMap<String, Long> nameIndex;
+
+    UserRepository() {
+        createIndexes();
+    }
+
     User create(@NotNull final User user) {
-        if (findByEmail(user.getEmail()).isPresent()) {
+        final String email = normalize(user.getEmail());
+        if (email != null && emailIndex.containsKey(email)) {
             throw new ExpectationFailedException("Email address has to be unique");
         }
         final Long userId = userSeq.incrementAndGet();
@@ -51,6 +76,7 @@ class UserRepository implements Serializable {
                 .version(version)
                 .build();
         this.users.put(userId, userToCreate);
+        addToIndexes(userToCreate);
         return userToCreate;
     }
 
@@ -59,11 +85,22 @@ class UserRepository implements Serializable {
         if (!previousUser.getVersion().equals(user.getVersion())) {
             throw new ConcurrentModificationException("You tried to update an user that was modified concurrently!");
         }
+        final String email = normalize(user.getEmail());
+        if (email != null) {
+            final Long ownerId = emailIndex.get(email);
+            if (ownerId != null && !ownerId.equals(user.getUserId())) {
+                throw new ExpectationFailedException("Email address has to be unique");
+            }
+        }
         final Long version = Long.valueOf(user.hashCode());
         final User userToUpdate = user.toBuilder()
                 .version(version)
                 .build();
         users.put(userToUpdate.getUserId(), userToUpdate);
+        if (previousUser != user) {
+            removeFromIndexes(previousUser, userToUpdate);
+        }
+        addToIndexes(userToUpdate);
         return userToUpdate;
     }
 
@@ -72,18 +109,181 @@ class UserRepository implements Serializable {
     }
 
     Optional<User> findByEmail(@NotNull final String email) {
-        return this.users.values().stream()
-                .filter(user -> email.equals(user.getEmail()))
-                .findAny();
+        final String normalizedEmail = normalize(email);
+        final Long userId = normalizedEmail != null ? emailIndex.get(normalizedEmail) : null;
+        return userId != null ? findByUserId(userId) : Optional.empty();
     }
 
     List<User> findAll() {
-        return this.users.values().stream()
-                .sorted(comparingLong(User::getUserId))
-                .collect(toList());
+        return new ArrayList<>(userIdIndex.values());
+    }
+
+    Stream<User> streamAll() {
+        return userIdIndex.values().stream();
+    }
+
+    List<User> findAll(final Role role, final String namePrefix, final String cursor, final int limit) {
+        final List<User> page = new ArrayList<>(Math.min(limit, 128));
+        if (namePrefix != null) {
+            final String prefix = normalize(namePrefix);
+            final String lastKey = prefix + Character.MAX_VALUE;
+            final String afterKey = cursor != null ? new String(Base64.getUrlDecoder().decode(cursor), UTF_8) : null;
+            if (afterKey != null && afterKey.compareTo(lastKey) > 0) {
+                return page;
+            }
+            final NavigableMap<String, Long> matches = afterKey != null && afterKey.compareTo(prefix) >= 0
+                    ? nameIndex.subMap(afterKey, false, lastKey, true)
+                    : nameIndex.subMap(prefix, true, lastKey, true);
+            if (role != null && isSmaller(roleIndex.get(role), matches.keySet())) {
+                // a short prefix with a rare role: scanning the role's users beats filtering the name range
+                return findAllByRole(role, prefix, afterKey, limit);
+            }
+            // matches are visited in name order, without a role filter a page only touches the entries it returns,
+            // with one it touches at most as many entries as the role has users
+            for (final Map.Entry<String, Long> match : matches.entrySet()) {
+                if (page.size() >= limit) {
+                    break;
+                }
+                final User user = userIdIndex.get(match.getValue());
+                // users matching with first and last name are only listed at their first match
+                if (user != null && (role == null || role == user.getRole())
+                        && match.getKey().equals(firstNameIndexKey(user, prefix))) {
+                    page.add(user);
+                }
+            }
+        } else {
+            final long after = cursor != null ? Long.parseLong(cursor) : Long.MIN_VALUE;
+            final Collection<Long> candidates = role != null
+                    ? roleIndex.get(role).tailSet(after, false)
+                    : userIdIndex.tailMap(after, false).keySet();
+            for (final Long userId : candidates) {
+                if (page.size() >= limit) {
+                    break;
+                }
+                final User user = userIdIndex.get(userId);
+                if (user != null && (role == null || role == user.getRole())) {
+                    page.add(user);
+                }
+            }
+        }
+        return page;
+    }
+
+    private List<User> findAllByRole(@NotNull final Role role, @NotNull final String prefix,
+                                     final String afterKey, final int limit) {
+        // only the first matches in name order are kept, so pages and cursors are the same as with the name index
+        final NavigableMap<String, User> matches = new TreeMap<>();
+        for (final Long userId : roleIndex.get(role)) {
+            final User user = userIdIndex.get(userId);
+            final Optional<String> key = user != null ? findNameIndexKey(user, prefix) : Optional.empty();
+            if (key.isPresent() && (afterKey == null || key.get().compareTo(afterKey) > 0)) {
+                matches.put(key.get(), user);
+                if (matches.size() > limit) {
+                    matches.pollLastEntry();
+                }
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private static boolean isSmaller(@NotNull final Collection<?> first, @NotNull final Collection<?> second) {
+        // walks both in step, the sizes of the concurrent indexes are not known without a full traversal
+        final Iterator<?> firstIterator = first.iterator();
+        final Iterator<?> secondIterator = second.iterator();
+        while (firstIterator.hasNext() && secondIterator.hasNext()) {
+            firstIterator.next();
+            secondIterator.next();
+        }
+        return secondIterator.hasNext();
+    }
+
+    static String createCursor(@NotNull final User user, final String namePrefix) {
+        final String cursor;
+        if (namePrefix != null) {
+            final String key = firstNameIndexKey(user, normalize(namePrefix));
+            cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(UTF_8));
+        } else {
+            cursor = user.getUserId().toString();
+        }
+        return cursor;
+    }
+
+    private static String firstNameIndexKey(@NotNull final User user, @NotNull final String prefix) {
+        return findNameIndexKey(user, prefix).orElse(prefix);
+    }
+
+    private static Optional<String> findNameIndexKey(@NotNull final User user, @NotNull final String prefix) {
+        return nameIndexKeys(user).stream()
+                .filter(key -> key.startsWith(prefix))
+                .min(String::compareTo);
     }
 
     void delete(final Long userId) {
-        this.users.remove(userId);
+        final User user = this.users.remove(userId);
+        if (user != null) {
+            removeFromIndexes(user, null);
+        }
+    }
+
+    private void createIndexes() {
+        emailIndex = new ConcurrentHashMap<>();
+        userIdIndex = new ConcurrentSkipListMap<>();
+        roleIndex = new EnumMap<>(Role.class);
+        for (final Role role : Role.values()) {
+            roleIndex.put(role, new ConcurrentSkipListSet<>());
+        }
+        nameIndex = new ConcurrentSkipListMap<>();
+    }
+
+    private void addToIndexes(@NotNull final User user) {
+        final Long userId = user.getUserId();
+        final String email = normalize(user.getEmail());
+        if (email != null) {
+            emailIndex.put(email, userId);
+        }
+        userIdIndex.put(userId, user);
+        if (user.getRole() != null) {
+            roleIndex.get(user.getRole()).add(userId);
+        }
+        nameIndexKeys(user).forEach(key -> nameIndex.put(key, userId));
+    }
+
+    private void removeFromIndexes(@NotNull final User user, final User replacement) {
+        final Long userId = user.getUserId();
+        final String email = normalize(user.getEmail());
+        if (email != null && (replacement == null || !email.equals(normalize(replacement.getEmail())))) {
+            emailIndex.remove(email, userId);
+        }
+        if (replacement == null) {
+            userIdIndex.remove(userId);
+        }
+        if (user.getRole() != null && (replacement == null || user.getRole() != replacement.getRole())) {
+            roleIndex.get(user.getRole()).remove(userId);
+        }
+        final List<String> replacementKeys = replacement != null ? nameIndexKeys(replacement) : new ArrayList<>(0);
+        nameIndexKeys(user).stream()
+                .filter(key -> !replacementKeys.contains(key))
+                .forEach(nameIndex::remove);
+    }
+
+    private static List<String> nameIndexKeys(@NotNull final User user) {
+        final List<String> keys = new ArrayList<>(2);
+        for (final String name : new String[] {user.getFirstName(), user.getLastName()}) {
+            final String normalizedName = normalize(name);
+            if (normalizedName != null) {
+                keys.add(normalizedName + NAME_INDEX_SEPARATOR + user.getUserId());
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(final String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private void readObject(@NotNull final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        createIndexes();
+        users.values().forEach(this::addToIndexes);
     }
 }
@@ -18,6 +18,7 @@
 package ch.sportchef.business.user.control;
 
 import ch.sportchef.business.PersistenceManager;
+import ch.sportchef.business.authentication.entity.Role;
 import ch.sportchef.business.user.entity.User;
 import com.codahale.metrics.annotation.Metered;
 import com.codahale.metrics.annotation.Timed;
@@ -33,6 +34,9 @@ import javax.ws.rs.core.SecurityContext;
 import java.security.Principal;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Singleton
 @Timed(name = "Timed: EventService")
@@ -41,6 +45,7 @@ public class UserService {
 
     private PersistenceController<UserRepository> controller;
     private HealthCheckRegistry healthCheckRegistry;
+    private final List<Consumer<User>> changeListeners = new CopyOnWriteArrayList<>();
 
     @Inject
     public UserService(@NotNull final HealthCheckRegistry healthCheckRegistry) {
@@ -63,7 +68,9 @@ public class UserService {
     }
 
     public User update(@NotNull final User user) {
-        return controller.executeAndQuery(mgr -> mgr.update(user));
+        final User updatedUser = controller.executeAndQuery(mgr -> mgr.update(user));
+        changeListeners.forEach(listener -> listener.accept(updatedUser));
+        return updatedUser;
     }
 
     public Optional<User> findByUserId(@NotNull final Long userId) {
@@ -78,8 +85,26 @@ public class UserService {
         return controller.query(UserRepository::findAll);
     }
 
+    public Stream<User> streamAll() {
+        return controller.query(UserRepository::streamAll);
+    }
+
+    public List<User> findAll(final Role role, final String namePrefix, final String cursor, final int limit) {
+        return controller.query(ctrl -> ctrl.findAll(role, namePrefix, cursor, limit));
+    }
+
+    public String createCursor(@NotNull final User user, final String namePrefix) {
+        return UserRepository.createCursor(user, namePrefix);
+    }
+
     public void delete(final Long userId) {
+        final Optional<User> user = findByUserId(userId);
         controller.execute(mgr -> mgr.delete(userId));
+        user.ifPresent(deletedUser -> changeListeners.forEach(listener -> listener.accept(deletedUser)));
+    }
+
+    public void addChangeListener(@NotNull final Consumer<User> listener) {
+        changeListeners.add(listener);
     }
 
     public Optional<User> getAuthenticatedUser(@NotNull final SecurityContext securityContext) {
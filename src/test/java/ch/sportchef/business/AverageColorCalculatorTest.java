@@ -20,12 +20,14 @@ package ch.sportchef.business;
 import org.junit.jupiter.api.Test;
 
 import javax.imageio.ImageIO;
+import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Random;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -63,6 +65,145 @@ public class AverageColorCalculatorTest {
         }
     }
 
+    @Test
+    public void getAverageColorAsHexMatchesPerPixelReference() {
+        final int[] imageTypes = {
+                BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_ARGB_PRE,
+                BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY };
+        final Random random = new Random(42);
+
+        for (final int imageType : imageTypes) {
+            // arrange
+            final BufferedImage image = createRandomImage(imageType, 73, 41, random);
+            final BufferedImage subimage = image.getSubimage(7, 5, 50, 30);
+
+            // act
+            final String averageColorAsHex = AverageColorCalculator.getAverageColorAsHex(image);
+            final String subimageColorAsHex = AverageColorCalculator.getAverageColorAsHex(subimage);
+
+            // assert
+            assertThat(averageColorAsHex, is(getReferenceAverageColorAsHex(image)));
+            assertThat(subimageColorAsHex, is(getReferenceAverageColorAsHex(subimage)));
+        }
+    }
+
+    @Test
+    public void getAverageColorAsHexWithStride() {
+        // arrange
+        final BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                image.setRGB(x, y, x % 2 == 0 && y % 2 == 0 ? 0x102030 : 0xFFFFFF);
+            }
+        }
+
+        // act
+        final String averageColorAsHex = AverageColorCalculator.getAverageColorAsHex(image, 2);
+
+        // assert
+        assertThat(averageColorAsHex, is("#102030"));
+    }
+
+    @Test
+    public void getAverageColorAsHexParallelMatchesSequential() {
+        final int[] imageTypes = {
+                BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_BYTE_GRAY };
+        final Random random = new Random(4711);
+
+        for (final int imageType : imageTypes) {
+            for (final int stride : new int[] {1, 3}) {
+                // arrange
+                final BufferedImage image = createRandomImage(imageType, 1500, 800, random);
+
+                // act
+                final String sequential = AverageColorCalculator.getAverageColorAsHex(image, stride, false);
+                final String parallel = AverageColorCalculator.getAverageColorAsHex(image, stride, true);
+
+                // assert
+                assertThat(parallel, is(sequential));
+            }
+        }
+    }
+
+    @Test
+    public void getAverageColorAsHexWithInvalidStride() {
+        // arrange
+        final BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+
+        // act & assert
+        assertThrows(IllegalArgumentException.class,
+                () -> AverageColorCalculator.getAverageColorAsHex(image, 0));
+    }
+
+    private static BufferedImage createRandomImage(final int imageType, final int width, final int height,
+                                                   final Random random) {
+        final BufferedImage image = new BufferedImage(width, height, imageType);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    @SuppressWarnings("ObjectAllocationInLoop")
+    private static String getReferenceAverageColorAsHex(final BufferedImage image) {
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        long pixelCount = 0;
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                final Color color = new Color(image.getRGB(x, y));
+                red += color.getRed();
+                green += color.getGreen();
+                blue += color.getBlue();
+                pixelCount++;
+            }
+        }
+
+        int averageRed = (int) (red / pixelCount);
+        int averageGreen = (int) (green / pixelCount);
+        int averageBlue = (int) (blue / pixelCount);
+        while (averageRed + averageGreen + averageBlue > 600) {
+            if (averageRed > 0) averageRed--;
+            if (averageGreen > 0) averageGreen--;
+            if (averageBlue > 0) averageBlue--;
+        }
+
+        return String.format("#%02X%02X%02X", averageRed, averageGreen, averageBlue);
+    }
+
+    @Test
+    public void checkColorThresholdMatchesDecrementLoopForAllColors() {
+        for (int rgb = 0; rgb <= 0xFFFFFF; rgb++) {
+            // arrange
+            final Color color = new Color(rgb);
+
+            // act
+            final Color result = AverageColorCalculator.checkColorThreshold(color);
+
+            // assert
+            final int expected = getReferenceThresholdColor(color.getRed(), color.getGreen(), color.getBlue());
+            if (result.getRGB() != expected) {
+                assertThat(String.format("#%06X", 0xFFFFFF & result.getRGB()),
+                        is(String.format("#%06X", 0xFFFFFF & expected)));
+            }
+        }
+    }
+
+    private static int getReferenceThresholdColor(final int red, final int green, final int blue) {
+        int thresholdRed = red;
+        int thresholdGreen = green;
+        int thresholdBlue = blue;
+        while (thresholdRed + thresholdGreen + thresholdBlue > 600) {
+            if (thresholdRed > 0) thresholdRed--;
+            if (thresholdGreen > 0) thresholdGreen--;
+            if (thresholdBlue > 0) thresholdBlue--;
+        }
+        return new Color(thresholdRed, thresholdGreen, thresholdBlue).getRGB();
+    }
+
     @Test
     public final void testImageColorWithoutImage() {
         // arrange
@@ -20,7 +20,12 @@ package ch.sportchef.business;
 import org.junit.jupiter.api.Test;
 
 import javax.imageio.ImageIO;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -61,6 +66,100 @@ public class ImageResizerTest {
         }
     }
 
+    @Test
+    public final void calculateSubsamplingForSmallImage() {
+        assertThat(ImageResizer.calculateSubsampling(525, 300, IMAGE_WIDTH, IMAGE_HEIGHT), is(1));
+    }
+
+    @Test
+    public final void calculateSubsamplingForLargeImage() {
+        // 24 megapixel photo: min(6000 / 350, 4000 / 200) = 17, halved to keep some headroom
+        assertThat(ImageResizer.calculateSubsampling(6000, 4000, IMAGE_WIDTH, IMAGE_HEIGHT), is(8));
+        assertThat(ImageResizer.calculateSubsampling(4000, 6000, IMAGE_WIDTH, IMAGE_HEIGHT), is(5));
+    }
+
+    @Test
+    public final void calculateSubsamplingKeepsOutputCovered() {
+        for (int width = IMAGE_WIDTH; width < 5000; width += 97) {
+            for (int height = IMAGE_HEIGHT; height < 5000; height += 89) {
+                // arrange
+                final int subsampling = ImageResizer.calculateSubsampling(width, height, IMAGE_WIDTH, IMAGE_HEIGHT);
+
+                // act
+                final int subsampledWidth = (width + subsampling - 1) / subsampling;
+                final int subsampledHeight = (height + subsampling - 1) / subsampling;
+
+                // assert
+                assertThat(subsampledWidth >= IMAGE_WIDTH, is(true));
+                assertThat(subsampledHeight >= IMAGE_HEIGHT, is(true));
+            }
+        }
+    }
+
+    @Test
+    public final void testResizeAndCropWithAllModes() {
+        for (final ImageResizer.Mode mode : ImageResizer.Mode.values()) {
+            // arrange
+            final BufferedImage inputImage = new BufferedImage(3000, 2000, BufferedImage.TYPE_3BYTE_BGR);
+
+            // act
+            final BufferedImage outputImage = ImageResizer.resizeAndCrop(inputImage, IMAGE_WIDTH, IMAGE_HEIGHT, mode);
+
+            // assert
+            assertThat(outputImage.getWidth(), is(IMAGE_WIDTH));
+            assertThat(outputImage.getHeight(), is(IMAGE_HEIGHT));
+            assertThat(outputImage.getType(), is(BufferedImage.TYPE_INT_RGB));
+        }
+    }
+
+    @Test
+    public final void testResizeCustomImageType() {
+        // arrange
+        final ColorModel colorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB),
+                new int[] {16, 16, 16}, false, false, Transparency.OPAQUE, DataBuffer.TYPE_USHORT);
+        final BufferedImage inputImage = new BufferedImage(colorModel,
+                colorModel.createCompatibleWritableRaster(700, 400), false, null);
+        assertThat(inputImage.getType(), is(BufferedImage.TYPE_CUSTOM));
+
+        // act
+        final BufferedImage outputImage = ImageResizer.resize(inputImage, IMAGE_WIDTH, IMAGE_HEIGHT);
+
+        // assert
+        assertThat(outputImage.getWidth(), is(IMAGE_WIDTH));
+        assertThat(outputImage.getHeight(), is(IMAGE_HEIGHT));
+    }
+
+    @Test
+    public final void testResizeKeepsAlpha() {
+        // arrange
+        final BufferedImage inputImage = new BufferedImage(700, 400, BufferedImage.TYPE_4BYTE_ABGR);
+
+        // act
+        final BufferedImage outputImage = ImageResizer.resize(inputImage, IMAGE_WIDTH, IMAGE_HEIGHT);
+
+        // assert
+        assertThat(outputImage.getType(), is(BufferedImage.TYPE_INT_ARGB));
+    }
+
+    @Test
+    public final void testProgressiveResizeAveragesFinePattern() {
+        // arrange
+        final BufferedImage inputImage = new BufferedImage(2800, 1600, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < inputImage.getHeight(); y++) {
+            for (int x = 0; x < inputImage.getWidth(); x++) {
+                inputImage.setRGB(x, y, (x + y) % 2 == 0 ? 0xFFFFFF : 0x000000);
+            }
+        }
+
+        // act
+        final BufferedImage outputImage =
+                ImageResizer.resize(inputImage, IMAGE_WIDTH, IMAGE_HEIGHT, ImageResizer.Mode.BALANCED);
+
+        // assert
+        final int grey = outputImage.getRGB(IMAGE_WIDTH / 2, IMAGE_HEIGHT / 2) & 0xFF;
+        assertThat(grey > 64 && grey < 192, is(true));
+    }
+
     private static BufferedImage testResizeAndCrop(final URI uri) throws IOException {
         final File file = new File(uri);
         final BufferedImage inputImage = ImageIO.read(file);
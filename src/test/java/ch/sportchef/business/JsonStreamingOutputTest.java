@@ -0,0 +1,61 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JsonStreamingOutputTest {
+
+    @Test
+    public void writeElements() throws IOException {
+        // arrange
+        final JsonStreamingOutput<String> streamingOutput =
+                new JsonStreamingOutput<>(new ObjectMapper(), Stream.of("foo", "bar"));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // act
+        streamingOutput.write(output);
+
+        // assert
+        assertThat(new String(output.toByteArray(), UTF_8), is("[\"foo\",\"bar\"]"));
+    }
+
+    @Test
+    public void writeWithoutElements() throws IOException {
+        // arrange
+        final JsonStreamingOutput<String> streamingOutput =
+                new JsonStreamingOutput<>(new ObjectMapper(), Stream.empty());
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // act
+        streamingOutput.write(output);
+
+        // assert
+        assertThat(new String(output.toByteArray(), UTF_8), is("[]"));
+    }
+
+}
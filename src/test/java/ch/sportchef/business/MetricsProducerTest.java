@@ -0,0 +1,53 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MetricsProducerTest {
+
+    @Test
+    public void reporterUnregistersMetricsOnCleanup() throws MalformedObjectNameException {
+        // arrange
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final String metricName = UUID.randomUUID().toString();
+        final ObjectName objectName = new ObjectName(String.format("ch.sportchef:name=%s,*", metricName));
+        final MetricsProducer metricsProducer = new MetricsProducer();
+        metricsProducer.setupResources();
+        metricsProducer.metricRegistryProducer().meter(metricName);
+        final boolean registered = !mBeanServer.queryNames(objectName, null).isEmpty();
+
+        // act
+        metricsProducer.cleanupResources();
+
+        // assert
+        assertThat(registered, is(true));
+        assertThat(mBeanServer.queryNames(objectName, null).isEmpty(), is(true));
+        metricsProducer.metricRegistryProducer().remove(metricName);
+    }
+
+}
@@ -19,11 +19,14 @@ package ch.sportchef.business.authentication.boundary;
 
 import ch.sportchef.business.authentication.control.AuthenticationService;
 import ch.sportchef.business.authentication.entity.AuthenticationData;
+import ch.sportchef.business.exception.TooManyRequestsException;
 import org.junit.jupiter.api.Test;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -46,6 +49,38 @@ public class AuthenticationResourceTest {
         verify(authenticationServiceMock, times(0)).requestChallenge(email);
     }
 
+    @Test
+    public void requestChallengeWithFullMailQueue() {
+        // arrange
+        final String email = "foobar@sportchef.ch";
+        final AuthenticationService authenticationServiceMock = mock(AuthenticationService.class);
+        when(authenticationServiceMock.requestChallenge(email)).thenThrow(new RejectedExecutionException());
+        final AuthenticationResource authenticationResource = new AuthenticationResource(authenticationServiceMock);
+
+        // act
+        final Response response = authenticationResource.requestChallenge(email);
+
+        //assert
+        assertThat(response.getStatus(), is(Response.Status.SERVICE_UNAVAILABLE.getStatusCode()));
+        assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER), is("10"));
+    }
+
+    @Test
+    public void requestChallengeTooOften() {
+        // arrange
+        final String email = "foobar@sportchef.ch";
+        final AuthenticationService authenticationServiceMock = mock(AuthenticationService.class);
+        when(authenticationServiceMock.requestChallenge(email)).thenThrow(new TooManyRequestsException("too many", 20));
+        final AuthenticationResource authenticationResource = new AuthenticationResource(authenticationServiceMock);
+
+        // act
+        final Response response = authenticationResource.requestChallenge(email);
+
+        //assert
+        assertThat(response.getStatus(), is(429));
+        assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER), is("20"));
+    }
+
     @Test
     public void requestChallengeWithNotFound() {
         // arrange
@@ -19,8 +19,11 @@ package ch.sportchef.business.authentication.control;
 
 import ch.sportchef.business.configuration.control.ConfigurationService;
 import ch.sportchef.business.configuration.entity.Configuration;
+import ch.sportchef.business.exception.TooManyRequestsException;
+import ch.sportchef.business.mail.control.MailService;
 import ch.sportchef.business.user.control.UserService;
 import ch.sportchef.business.user.entity.User;
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.health.HealthCheckRegistry;
 import com.dumbster.smtp.MailMessage;
 import com.dumbster.smtp.ServerOptions;
@@ -31,10 +34,15 @@ import org.apache.commons.mail.EmailException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import javax.validation.constraints.NotNull;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 import static ch.sportchef.business.authentication.entity.Role.ADMIN;
 import static ch.sportchef.business.authentication.entity.Role.USER;
@@ -63,11 +71,14 @@ public class AuthenticationServiceTest {
     private UserService userServiceMock;
     private ConfigurationService configurationServiceMock;
     private HealthCheckRegistry healthCheckRegistryMock;
+    private MetricRegistry metricRegistry;
+    private MailService mailService;
     private SmtpServer smtpServer;
+    private User testUser;
 
     @BeforeEach
     public void setup() {
-        final User testUser = User.builder()
+        testUser = User.builder()
                 .userId(TEST_USER_ID)
                 .firstName(TEST_USER_FIRSTNAME)
                 .lastName(TEST_USER_LASTNAME)
@@ -77,9 +88,12 @@ public class AuthenticationServiceTest {
 
         userServiceMock = mock(UserService.class);
         when(userServiceMock.findByEmail(anyString())).thenAnswer(x -> Optional.of(testUser));
+        when(userServiceMock.findByUserId(TEST_USER_ID)).thenAnswer(x -> Optional.of(testUser));
         configurationServiceMock = mock(ConfigurationService.class);
         when(configurationServiceMock.getConfiguration()).thenAnswer(x -> createConfigurationMock());
         healthCheckRegistryMock = mock(HealthCheckRegistry.class);
+        metricRegistry = new MetricRegistry();
+        mailService = new MailService(configurationServiceMock, metricRegistry);
 
         final ServerOptions smtpServerOptions = new ServerOptions();
         smtpServerOptions.port = 4444;
@@ -88,6 +102,7 @@ public class AuthenticationServiceTest {
 
     @AfterEach
     public void tearDown() {
+        mailService.cleanupResources();
         if (smtpServer != null) {
             smtpServer.stop();
         }
@@ -103,6 +118,8 @@ public class AuthenticationServiceTest {
         when(configurationMock.getSMTPPassword()).thenReturn("test");
         when(configurationMock.getSMTPSSL()).thenReturn(FALSE);
         when(configurationMock.getSMTPFrom()).thenReturn("noreply@sportchef.ch");
+        when(configurationMock.getChallengeLimitEmail()).thenReturn(3);
+        when(configurationMock.getChallengeLimitGlobal()).thenReturn(1000);
         return configurationMock;
     }
 
@@ -110,7 +127,7 @@ public class AuthenticationServiceTest {
     public void requestChallengeNotOk() {
         // arrange
         when(userServiceMock.findByEmail(TEST_USER_EMAIL)).thenReturn(Optional.empty());
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act
         final boolean ok = authenticationService.requestChallenge(TEST_USER_EMAIL);
@@ -123,7 +140,7 @@ public class AuthenticationServiceTest {
     @Test
     public void validateMalformedToken() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act & assert
         assertThrows(MalformedJwtException.class,
@@ -133,7 +150,7 @@ public class AuthenticationServiceTest {
     @Test
     public void validateSignatureToken() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act & assert
         assertThrows(SignatureException.class,
@@ -152,17 +169,98 @@ public class AuthenticationServiceTest {
                 .setClaims(claims)
                 .signWith(SignatureAlgorithm.HS512, tokenSigningKey)
                 .compact();
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act & assert
         assertThrows(ExpiredJwtException.class,
                 () -> authenticationService.validate(token));
     }
 
+    private String createToken() {
+        final Date exp = new Date(System.currentTimeMillis() + 60 * 1000);
+        final Claims claims = Jwts.claims();
+        claims.setExpiration(exp);
+        claims.put("email", TEST_USER_EMAIL);
+        final String tokenSigningKey = configurationServiceMock.getConfiguration().getTokenSigningKey();
+        return Jwts.builder()
+                .setClaims(claims)
+                .signWith(SignatureAlgorithm.HS512, tokenSigningKey)
+                .compact();
+    }
+
+    @Test
+    public void validateTokenFromCache() {
+        // arrange
+        final String token = createToken();
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
+        authenticationService.validate(token);
+
+        // act
+        final Optional<User> userOptional = authenticationService.validate(token);
+
+        // assert
+        assertThat(userOptional.get().getEmail(), is(TEST_USER_EMAIL));
+        verify(userServiceMock, times(1)).findByEmail(TEST_USER_EMAIL);
+        assertThat(metricRegistry.meter("ch.sportchef.business.authentication.control.AuthenticationService.token-cache.hits").getCount(), is(1L));
+        assertThat(metricRegistry.meter("ch.sportchef.business.authentication.control.AuthenticationService.token-cache.misses").getCount(), is(1L));
+    }
+
+    @Test
+    public void validateTokenAfterUserChangeWithoutNotification() {
+        // arrange
+        final String token = createToken();
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
+        authenticationService.validate(token);
+        final User demotedUser = testUser.toBuilder().role(USER).build();
+        when(userServiceMock.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(demotedUser));
+
+        // act
+        final Optional<User> userOptional = authenticationService.validate(token);
+
+        // assert
+        assertThat(userOptional.get(), is(demotedUser));
+        verify(userServiceMock, times(1)).findByEmail(TEST_USER_EMAIL);
+    }
+
+    @Test
+    public void validateTokenAfterUserDeletedWithoutNotification() {
+        // arrange
+        final String token = createToken();
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
+        authenticationService.validate(token);
+        when(userServiceMock.findByUserId(TEST_USER_ID)).thenReturn(Optional.empty());
+        when(userServiceMock.findByEmail(TEST_USER_EMAIL)).thenReturn(Optional.empty());
+
+        // act
+        final Optional<User> userOptional = authenticationService.validate(token);
+
+        // assert
+        assertThat(userOptional.isPresent(), is(false));
+    }
+
+    @Test
+    public void validateTokenAfterUserChange() {
+        // arrange
+        final String token = createToken();
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<Consumer<User>> changeListener = ArgumentCaptor.forClass((Class) Consumer.class);
+        verify(userServiceMock).addChangeListener(changeListener.capture());
+        authenticationService.validate(token);
+
+        // act
+        changeListener.getValue().accept(testUser);
+        final Optional<User> userOptional = authenticationService.validate(token);
+
+        // assert
+        assertThat(userOptional.isPresent(), is(true));
+        verify(userServiceMock, times(2)).findByEmail(TEST_USER_EMAIL);
+    }
+
     @Test
     public void requestAndValidateChallengeAndToken() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act
         validateToken(validateChallenge(authenticationService, requestChallenge(authenticationService)));
@@ -175,7 +273,7 @@ public class AuthenticationServiceTest {
     @Test
     public void typoWhileLoginDoesNotLogin() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
         requestChallenge(authenticationService);
 
         // act
@@ -188,7 +286,7 @@ public class AuthenticationServiceTest {
     @Test
     public void loginWithoutChallengeRequestedDoesNotLogin() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act
         final Optional<String> token = authenticationService.validateChallenge(TEST_USER_EMAIL, "anyChallenge");
@@ -200,7 +298,7 @@ public class AuthenticationServiceTest {
     @Test
     public void make1TypoWhileLoggingInStillWorks() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
         final String correctChallenge = requestChallenge(authenticationService);
 
         // act
@@ -214,7 +312,7 @@ public class AuthenticationServiceTest {
     @Test
     public void make10TyposWhileLoggingInDisablesTheChallenge() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
         final String correctChallenge = requestChallenge(authenticationService);
 
         // act
@@ -230,13 +328,49 @@ public class AuthenticationServiceTest {
     @Test
     public void requestChallengeWithException() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act & assert
         assertThrows(EmailException.class,
                 () -> authenticationService.requestChallenge("@test"));
     }
 
+    @Test
+    public void requestChallengeWithFullMailQueue() throws EmailException {
+        // arrange
+        final MailService mailServiceMock = mock(MailService.class);
+        doThrow(new RejectedExecutionException()).when(mailServiceMock).sendMail(anyString(), anyString(), anyString());
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailServiceMock, healthCheckRegistryMock, metricRegistry);
+
+        // act
+        assertThrows(RejectedExecutionException.class,
+                () -> authenticationService.requestChallenge(TEST_USER_EMAIL));
+
+        // assert
+        final ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(mailServiceMock).sendMail(anyString(), anyString(), message.capture());
+        final String challenge = message.getValue().substring(message.getValue().indexOf("=") + 2);
+        assertThat(authenticationService.validateChallenge(TEST_USER_EMAIL, challenge).isPresent(), is(false));
+    }
+
+    @Test
+    public void requestChallengeTooOften() {
+        // arrange
+        when(userServiceMock.findByEmail(TEST_USER_EMAIL)).thenReturn(Optional.empty());
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
+        for (int i = 0; i < 3; i++) {
+            authenticationService.requestChallenge(TEST_USER_EMAIL);
+        }
+
+        // act
+        final TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> authenticationService.requestChallenge(TEST_USER_EMAIL.toUpperCase()));
+
+        // assert
+        assertThat(exception.getRetryAfter(), is(20L));
+        verify(userServiceMock, times(3)).findByEmail(anyString());
+    }
+
     private String requestChallenge(@NotNull final AuthenticationService authenticationService) {
         // arrange
 
@@ -245,13 +379,27 @@ public class AuthenticationServiceTest {
 
         // assert
         assertThat(ok, is(true));
-        final MailMessage newestMessage = smtpServer.getMessage(smtpServer.getMessages().length - 1);
-        assertThat(newestMessage.getFirstHeaderValue("To"), is(TEST_USER_EMAIL));
+        final MailMessage message = waitForMessage(TEST_USER_EMAIL);
+        assertThat(message.getFirstHeaderValue("To"), is(TEST_USER_EMAIL));
 
-        final String body = newestMessage.getBody();
+        final String body = message.getBody();
         return body.substring(body.indexOf("=") + 2);
     }
 
+    private MailMessage waitForMessage(@NotNull final String recipient) {
+        // challenge mails are delivered in the background
+        final long timeout = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < timeout) {
+            for (final MailMessage message : smtpServer.getMessages()) {
+                if (recipient.equals(message.getFirstHeaderValue("To"))) {
+                    return message;
+                }
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        throw new AssertionError(String.format("no mail delivered to '%s'", recipient));
+    }
+
     private String validateChallenge(@NotNull final AuthenticationService authenticationService,
                                      @NotNull final String challenge) {
         // arrange
@@ -267,7 +415,7 @@ public class AuthenticationServiceTest {
 
     private void validateToken(@NotNull final String token) {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act
         final Optional<User> userOptional = authenticationService.validate(token);
@@ -282,7 +430,7 @@ public class AuthenticationServiceTest {
     public void isUserInRole() {
         // arrange
         final User user = User.builder().role(USER).build();
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act
         final boolean isUserInRoleUser = authenticationService.isUserInRole(user, USER);
@@ -297,7 +445,7 @@ public class AuthenticationServiceTest {
     public void isUserInAdmin() {
         // arrange
         final User admin = User.builder().role(ADMIN).build();
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act
         final boolean isUserInRoleUser = authenticationService.isUserInRole(admin, USER);
@@ -311,7 +459,7 @@ public class AuthenticationServiceTest {
     @Test
     public void shortChallengeIfNoActivityOngoing() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
 
         // act
         final String challenge = requestChallenge(authenticationService);
@@ -323,7 +471,7 @@ public class AuthenticationServiceTest {
     @Test
     public void longChallengeIfActivityOngoing() {
         // arrange
-        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, healthCheckRegistryMock);
+        final AuthenticationService authenticationService = new AuthenticationService(userServiceMock, configurationServiceMock, mailService, healthCheckRegistryMock, metricRegistry);
         for (int i = 0; i < 100; i++) {
             authenticationService.requestChallenge(i + TEST_USER_EMAIL);
         }
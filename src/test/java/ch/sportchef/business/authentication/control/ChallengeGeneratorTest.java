@@ -0,0 +1,76 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sportchef.hamcrest.matcher.PatternMatcher.matchesPattern;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ChallengeGeneratorTest {
+
+    @Test
+    public void generateChallenge() {
+        // arrange
+        final ChallengeGenerator challengeGenerator = new ChallengeGenerator();
+
+        // act
+        final String challenge = challengeGenerator.generate(10);
+
+        // assert
+        assertThat(challenge, matchesPattern("[a-zA-Z0-9]{10}"));
+    }
+
+    @Test
+    public void generateLongerThanBuffer() {
+        // arrange
+        final ChallengeGenerator challengeGenerator = new ChallengeGenerator();
+
+        // act
+        final String challenge = challengeGenerator.generate(1000);
+
+        // assert
+        assertThat(challenge, matchesPattern("[a-zA-Z0-9]{1000}"));
+    }
+
+    @Test
+    public void generateUniqueChallengesConcurrently() throws InterruptedException {
+        // arrange
+        final ChallengeGenerator challengeGenerator = new ChallengeGenerator();
+        final Set<String> challenges = ConcurrentHashMap.newKeySet();
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        // act
+        for (int i = 0; i < 1000; i++) {
+            executorService.execute(() -> challenges.add(challengeGenerator.generate(10)));
+        }
+        executorService.shutdown();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+
+        // assert
+        assertThat(challenges.size(), is(1000));
+    }
+
+}
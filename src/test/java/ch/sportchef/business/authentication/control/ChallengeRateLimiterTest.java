@@ -0,0 +1,120 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ChallengeRateLimiterTest {
+
+    private static final String TEST_USER_EMAIL = "john.doe@sportchef.ch";
+
+    private AtomicLong time;
+    private Ticker ticker;
+
+    @BeforeEach
+    public void setup() {
+        time = new AtomicLong();
+        ticker = new Ticker() {
+            @Override
+            public long read() {
+                return time.get();
+            }
+        };
+    }
+
+    @Test
+    public void limitPerEmail() {
+        // arrange
+        final ChallengeRateLimiter challengeRateLimiter = new ChallengeRateLimiter(3, 1000, ticker);
+        for (int i = 0; i < 3; i++) {
+            assertThat(challengeRateLimiter.acquire(TEST_USER_EMAIL), is(0L));
+        }
+
+        // act
+        final long retryAfter = challengeRateLimiter.acquire(" John.Doe@SportChef.ch ");
+        final long otherEmail = challengeRateLimiter.acquire("jane.doe@sportchef.ch");
+
+        // assert
+        assertThat(retryAfter, is(20L));
+        assertThat(otherEmail, is(0L));
+    }
+
+    @Test
+    public void refillPerEmail() {
+        // arrange
+        final ChallengeRateLimiter challengeRateLimiter = new ChallengeRateLimiter(3, 1000, ticker);
+        for (int i = 0; i < 3; i++) {
+            challengeRateLimiter.acquire(TEST_USER_EMAIL);
+        }
+
+        // act
+        time.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        final long first = challengeRateLimiter.acquire(TEST_USER_EMAIL);
+        final long second = challengeRateLimiter.acquire(TEST_USER_EMAIL);
+
+        // assert
+        assertThat(first, is(0L));
+        assertThat(second, is(20L));
+    }
+
+    @Test
+    public void limitGlobal() {
+        // arrange
+        final ChallengeRateLimiter challengeRateLimiter = new ChallengeRateLimiter(3, 10, ticker);
+        for (int i = 0; i < 10; i++) {
+            assertThat(challengeRateLimiter.acquire(i + TEST_USER_EMAIL), is(0L));
+        }
+
+        // act
+        final long retryAfter = challengeRateLimiter.acquire(TEST_USER_EMAIL);
+
+        // assert
+        assertThat(retryAfter > 0L, is(true));
+    }
+
+    @Test
+    public void globalRejectionKeepsEmailAllowance() {
+        // arrange
+        final ChallengeRateLimiter challengeRateLimiter = new ChallengeRateLimiter(3, 1, ticker);
+        challengeRateLimiter.acquire("jane.doe@sportchef.ch");
+
+        // act
+        final long[] retryAfter = new long[4];
+        for (int i = 0; i < retryAfter.length; i++) {
+            retryAfter[i] = challengeRateLimiter.acquire(TEST_USER_EMAIL);
+        }
+        time.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        final long afterRefill = challengeRateLimiter.acquire(TEST_USER_EMAIL);
+
+        // assert
+        for (final long seconds : retryAfter) {
+            // rejected by the global limit of one per minute, never by the limit of the address
+            assertThat(seconds, is(60L));
+        }
+        assertThat(afterRefill, is(0L));
+    }
+
+}
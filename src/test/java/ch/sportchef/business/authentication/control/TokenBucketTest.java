@@ -0,0 +1,101 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TokenBucketTest {
+
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    public void burstUpToCapacity() {
+        // arrange
+        final TokenBucket tokenBucket = new TokenBucket(3, ONE_MINUTE);
+        final long now = System.nanoTime();
+
+        // act
+        final boolean first = tokenBucket.tryAcquire(now);
+        final boolean second = tokenBucket.tryAcquire(now);
+        final boolean third = tokenBucket.tryAcquire(now);
+        final boolean fourth = tokenBucket.tryAcquire(now);
+
+        // assert
+        assertThat(first, is(true));
+        assertThat(second, is(true));
+        assertThat(third, is(true));
+        assertThat(fourth, is(false));
+    }
+
+    @Test
+    public void refillOneTokenPerEmissionInterval() {
+        // arrange
+        final TokenBucket tokenBucket = new TokenBucket(3, ONE_MINUTE);
+        final long now = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            tokenBucket.tryAcquire(now);
+        }
+        final long interval = tokenBucket.getEmissionInterval();
+
+        // act
+        final boolean tooEarly = tokenBucket.tryAcquire(now + interval - 1);
+        final boolean refilled = tokenBucket.tryAcquire(now + interval);
+        final boolean empty = tokenBucket.tryAcquire(now + interval);
+
+        // assert
+        assertThat(interval, is(TimeUnit.SECONDS.toNanos(20)));
+        assertThat(tooEarly, is(false));
+        assertThat(refilled, is(true));
+        assertThat(empty, is(false));
+    }
+
+    @Test
+    public void emptyBucketRejectsAll() {
+        // arrange
+        final TokenBucket tokenBucket = new TokenBucket(0, ONE_MINUTE);
+
+        // act
+        final boolean acquired = tokenBucket.tryAcquire(System.nanoTime());
+
+        // assert
+        assertThat(acquired, is(false));
+    }
+
+    @Test
+    public void releaseReturnsToken() {
+        // arrange
+        final TokenBucket tokenBucket = new TokenBucket(1, ONE_MINUTE);
+        final long now = System.nanoTime();
+        tokenBucket.tryAcquire(now);
+
+        // act
+        tokenBucket.release();
+        final boolean acquired = tokenBucket.tryAcquire(now);
+        final boolean empty = tokenBucket.tryAcquire(now);
+
+        // assert
+        assertThat(acquired, is(true));
+        assertThat(empty, is(false));
+    }
+
+}
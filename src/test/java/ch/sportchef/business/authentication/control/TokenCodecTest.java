@@ -0,0 +1,114 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.authentication.control;
+
+import ch.sportchef.business.configuration.control.ConfigurationService;
+import ch.sportchef.business.configuration.entity.Configuration;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TokenCodecTest {
+
+    private static final String TEST_USER_EMAIL = "john.doe@sportchef.ch";
+
+    private Configuration configurationMock;
+    private ConfigurationService configurationServiceMock;
+
+    @BeforeEach
+    public void setup() {
+        configurationMock = mock(Configuration.class);
+        when(configurationMock.getTokenSigningKey()).thenReturn("This is a Mock!");
+        configurationServiceMock = mock(ConfigurationService.class);
+        when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+    }
+
+    private static Claims createClaims() {
+        final Claims claims = Jwts.claims();
+        claims.put("email", TEST_USER_EMAIL);
+        return claims;
+    }
+
+    @Test
+    public void createAndParseToken() {
+        // arrange
+        final TokenCodec tokenCodec = new TokenCodec(configurationServiceMock);
+
+        // act
+        final Claims claims = tokenCodec.parseToken(tokenCodec.createToken(createClaims()));
+
+        // assert
+        assertThat(claims.get("email", String.class), is(TEST_USER_EMAIL));
+    }
+
+    @Test
+    public void parseTokenSignedWithStringKey() {
+        // arrange
+        final TokenCodec tokenCodec = new TokenCodec(configurationServiceMock);
+        final String token = Jwts.builder()
+                .setClaims(createClaims())
+                .signWith(SignatureAlgorithm.HS512, "This is a Mock!")
+                .compact();
+
+        // act
+        final Claims claims = tokenCodec.parseToken(token);
+
+        // assert
+        assertThat(claims.get("email", String.class), is(TEST_USER_EMAIL));
+    }
+
+    @Test
+    public void createTokenVerifiableWithStringKey() {
+        // arrange
+        final TokenCodec tokenCodec = new TokenCodec(configurationServiceMock);
+
+        // act
+        final String token = tokenCodec.createToken(createClaims());
+
+        // assert
+        final Claims claims = Jwts.parser()
+                .setSigningKey("This is a Mock!")
+                .parseClaimsJws(token)
+                .getBody();
+        assertThat(claims.get("email", String.class), is(TEST_USER_EMAIL));
+    }
+
+    @Test
+    public void parseTokenAfterSigningKeyChanged() {
+        // arrange
+        final TokenCodec tokenCodec = new TokenCodec(configurationServiceMock);
+        final String token = tokenCodec.createToken(createClaims());
+        when(configurationMock.getTokenSigningKey()).thenReturn("This is another Mock!");
+
+        // act & assert
+        assertThrows(SignatureException.class,
+                () -> tokenCodec.parseToken(token));
+        assertThat(tokenCodec.parseToken(tokenCodec.createToken(createClaims())).get("email", String.class),
+                is(TEST_USER_EMAIL));
+    }
+
+}
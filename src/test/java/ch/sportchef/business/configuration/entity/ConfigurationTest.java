@@ -113,6 +113,36 @@ public class ConfigurationTest {
         assertThat(configuration.getSMTPFrom(), is("test@smtp.from"));
     }
 
+    @Test
+    public void getImageUploadMaxSize() {
+        assertThat(configuration.getImageUploadMaxSize(), is(10485760L));
+    }
+
+    @Test
+    public void getImageFormats() {
+        assertThat(configuration.getImageFormats(), is("jpeg,png"));
+    }
+
+    @Test
+    public void getImageJpegQuality() {
+        assertThat(configuration.getImageJpegQuality(), is(0.85f));
+    }
+
+    @Test
+    public void getImageWebpQuality() {
+        assertThat(configuration.getImageWebpQuality(), is(0.8f));
+    }
+
+    @Test
+    public void getChallengeLimitEmail() {
+        assertThat(configuration.getChallengeLimitEmail(), is(3));
+    }
+
+    @Test
+    public void getChallengeLimitGlobal() {
+        assertThat(configuration.getChallengeLimitGlobal(), is(600));
+    }
+
     @Test
     public void toStringTest() {
         assertThat(configuration.toString(), startsWith("Configuration(properties="));
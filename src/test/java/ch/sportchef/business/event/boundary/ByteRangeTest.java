@@ -0,0 +1,112 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.boundary;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ByteRangeTest {
+
+    private static final long LENGTH = 200;
+
+    @Test
+    public void parseWithoutHeader() {
+        // arrange
+
+        // act
+        final ByteRange range = ByteRange.parse(null, LENGTH);
+
+        // assert
+        assertThat(range, nullValue());
+    }
+
+    @Test
+    public void parseStartAndEnd() {
+        // arrange
+
+        // act
+        final ByteRange range = ByteRange.parse("bytes=10-99", LENGTH);
+
+        // assert
+        assertThat(range.getStart(), is(10L));
+        assertThat(range.getEnd(), is(99L));
+        assertThat(range.getCount(), is(90L));
+        assertThat(range.isSatisfiable(), is(true));
+    }
+
+    @Test
+    public void parseOpenEnd() {
+        // arrange
+
+        // act
+        final ByteRange range = ByteRange.parse("bytes=100-", LENGTH);
+
+        // assert
+        assertThat(range.getStart(), is(100L));
+        assertThat(range.getEnd(), is(199L));
+    }
+
+    @Test
+    public void parseSuffix() {
+        // arrange
+
+        // act
+        final ByteRange range = ByteRange.parse("bytes=-50", LENGTH);
+
+        // assert
+        assertThat(range.getStart(), is(150L));
+        assertThat(range.getEnd(), is(199L));
+    }
+
+    @Test
+    public void parseEndBeyondLength() {
+        // arrange
+
+        // act
+        final ByteRange range = ByteRange.parse("bytes=0-999", LENGTH);
+
+        // assert
+        assertThat(range.getEnd(), is(199L));
+    }
+
+    @Test
+    public void parseNotSatisfiable() {
+        // arrange
+
+        // act
+        final ByteRange range = ByteRange.parse("bytes=500-", LENGTH);
+
+        // assert
+        assertThat(range.isSatisfiable(), is(false));
+    }
+
+    @Test
+    public void parseIgnoresMalformedAndMultipleRanges() {
+        // arrange
+
+        // act & assert
+        assertThat(ByteRange.parse("bytes=x-1", LENGTH), nullValue());
+        assertThat(ByteRange.parse("bytes=5-2", LENGTH), nullValue());
+        assertThat(ByteRange.parse("bytes=0-1,3-4", LENGTH), nullValue());
+        assertThat(ByteRange.parse("items=0-1", LENGTH), nullValue());
+    }
+
+}
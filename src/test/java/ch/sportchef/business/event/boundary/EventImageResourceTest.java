@@ -19,6 +19,10 @@ package ch.sportchef.business.event.boundary;
 
 import ch.sportchef.business.event.control.EventImageService;
 import ch.sportchef.business.event.control.EventService;
+import ch.sportchef.business.event.entity.EventImage;
+import ch.sportchef.business.event.entity.EventImageFormat;
+import ch.sportchef.business.event.entity.EventImageSize;
+import ch.sportchef.business.event.entity.ImageUploadStatus;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.multipart.ByteArrayPartSource;
 import org.apache.commons.httpclient.methods.multipart.FilePart;
@@ -33,25 +37,43 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.core.Variant;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
 
+import static javax.ws.rs.core.Response.Status.ACCEPTED;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.PARTIAL_CONTENT;
+import static javax.ws.rs.core.Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static javax.ws.rs.core.Response.Status.TEMPORARY_REDIRECT;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.mockito.Matchers.anyLong;
-import static org.mockito.Matchers.anyObject;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -81,10 +103,12 @@ public class EventImageResourceTest {
     public void getImageOK() throws IOException, URISyntaxException {
         // arrange
         final byte[] image = readTestImage();
-        when(eventImageServiceMock.getImage(1L)).thenReturn(image);
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG))
+                .thenReturn(new EventImage(image, "etag", EventImageFormat.PNG));
+        final Request requestMock = mock(Request.class);
 
         // act
-        final Response response = eventImageResource.getImage();
+        final Response response = eventImageResource.getImage(requestMock, null, null, null);
 
         // assert
         final StreamingOutput streamingOutput = (StreamingOutput) response.getEntity();
@@ -93,26 +117,203 @@ public class EventImageResourceTest {
         final byte[] imageResponse = output.toByteArray();
         assertThat(response.getStatus(), is(OK.getStatusCode()));
         assertThat(imageResponse, is(image));
-        verify(eventImageServiceMock, times(1)).getImage(1L);
+        assertThat(response.getEntityTag(), is(new EntityTag("etag")));
+        assertThat(((CacheControl) response.getMetadata().getFirst("Cache-Control")).getMaxAge(), is(300));
+        verify(eventImageServiceMock, times(1)).getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG);
+    }
+
+    @Test
+    public void getImageNotModified() throws IOException, URISyntaxException {
+        // arrange
+        final byte[] image = readTestImage();
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG))
+                .thenReturn(new EventImage(image, "etag", EventImageFormat.PNG));
+        final Request requestMock = mock(Request.class);
+        when(requestMock.evaluatePreconditions(any(EntityTag.class))).thenReturn(Response.notModified());
+
+        // act
+        final Response response = eventImageResource.getImage(requestMock, null, null, null);
+
+        // assert
+        assertThat(response.getStatus(), is(NOT_MODIFIED.getStatusCode()));
+        assertThat(response.hasEntity(), is(false));
+        assertThat(response.getEntityTag(), is(new EntityTag("etag")));
+        verify(requestMock, times(1)).evaluatePreconditions(new EntityTag("etag"));
+    }
+
+    @Test
+    public void getImageRange() throws IOException, URISyntaxException {
+        // arrange
+        final byte[] image = readTestImage();
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG))
+                .thenReturn(new EventImage(image, "etag", EventImageFormat.PNG));
+        final Request requestMock = mock(Request.class);
+
+        // act
+        final Response response = eventImageResource.getImage(requestMock, "bytes=10-19", null, null);
+
+        // assert
+        final StreamingOutput streamingOutput = (StreamingOutput) response.getEntity();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        streamingOutput.write(output);
+        assertThat(response.getStatus(), is(PARTIAL_CONTENT.getStatusCode()));
+        assertThat(output.toByteArray(), is(Arrays.copyOfRange(image, 10, 20)));
+        assertThat(response.getMetadata().getFirst("Content-Range"), is(String.format("bytes 10-19/%d", image.length)));
+    }
+
+    @Test
+    public void getImageRangeIfRangeMatches() throws IOException, URISyntaxException {
+        // arrange
+        final byte[] image = readTestImage();
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG))
+                .thenReturn(new EventImage(image, "etag", EventImageFormat.PNG));
+        final Request requestMock = mock(Request.class);
+
+        // act
+        final Response response = eventImageResource.getImage(requestMock, "bytes=10-19", "\"etag\"", null);
+
+        // assert
+        assertThat(response.getStatus(), is(PARTIAL_CONTENT.getStatusCode()));
+        assertThat(response.getMetadata().getFirst("Content-Range"), is(String.format("bytes 10-19/%d", image.length)));
+    }
+
+    @Test
+    public void getImageRangeIfRangeChanged() throws IOException, URISyntaxException {
+        // arrange
+        final byte[] image = readTestImage();
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG))
+                .thenReturn(new EventImage(image, "etag", EventImageFormat.PNG));
+        final Request requestMock = mock(Request.class);
+
+        // act
+        final Response response = eventImageResource.getImage(requestMock, "bytes=10-19", "\"old-etag\"", null);
+
+        // assert
+        final StreamingOutput streamingOutput = (StreamingOutput) response.getEntity();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        streamingOutput.write(output);
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(output.toByteArray(), is(image));
+        assertThat(response.getMetadata().containsKey("Content-Range"), is(false));
+    }
+
+    @Test
+    public void getImageRangeNotSatisfiable() throws IOException, URISyntaxException {
+        // arrange
+        final byte[] image = readTestImage();
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG))
+                .thenReturn(new EventImage(image, "etag", EventImageFormat.PNG));
+        final Request requestMock = mock(Request.class);
+
+        // act
+        final Response response = eventImageResource.getImage(requestMock, "bytes=999999-", null, null);
+
+        // assert
+        assertThat(response.getStatus(), is(REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode()));
+        assertThat(response.hasEntity(), is(false));
+    }
+
+    @Test
+    public void getImageFromFile() throws IOException, URISyntaxException {
+        // arrange
+        final byte[] image = readTestImage();
+        final Path file = Files.createTempFile("sportchef-", ".png");
+        Files.write(file, image);
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG))
+                .thenReturn(new EventImage(file, image.length, "etag", EventImageFormat.PNG));
+        final Request requestMock = mock(Request.class);
+
+        // act
+        final Response response = eventImageResource.getImage(requestMock, null, null, null);
+
+        // assert
+        final StreamingOutput streamingOutput = (StreamingOutput) response.getEntity();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        streamingOutput.write(output);
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(output.toByteArray(), is(image));
+        assertThat(response.getMetadata().getFirst("Content-Length"), is((Object) (long) image.length));
+        Files.delete(file);
     }
 
     @Test
     public void getImageTemporaryRedirect() throws IOException, URISyntaxException {
         // arrange
-        when(eventImageServiceMock.getImage(1L)).thenThrow(new NotFoundException());
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG))
+                .thenThrow(new NotFoundException());
 
         // act
-        final Response response = eventImageResource.getImage();
+        final Response response = eventImageResource.getImage(mock(Request.class), null, null, null);
 
         // assert
         assertThat(response.getStatus(), is(TEMPORARY_REDIRECT.getStatusCode()));
         assertThat(response.getLocation().toString(), is("http://placehold.it/350x200"));
-        verify(eventImageServiceMock, times(1)).getImage(1L);
+        verify(eventImageServiceMock, times(1)).getImage(1L, EventImageSize.MEDIUM, EventImageFormat.PNG);
+    }
+
+    @Test
+    public void getImageWithSize() throws IOException, URISyntaxException {
+        // arrange
+        final byte[] image = readTestImage();
+        when(eventImageServiceMock.getImage(1L, EventImageSize.SMALL, EventImageFormat.PNG))
+                .thenReturn(new EventImage(image, "etag", EventImageFormat.PNG));
+
+        // act
+        final Response response = eventImageResource.getImage(mock(Request.class), null, null, "small");
+
+        // assert
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        verify(eventImageServiceMock, times(1)).getImage(1L, EventImageSize.SMALL, EventImageFormat.PNG);
+    }
+
+    @Test
+    public void getImageWithContentNegotiation() throws IOException, URISyntaxException {
+        // arrange
+        final byte[] image = readTestImage();
+        final Request requestMock = mock(Request.class);
+        when(eventImageServiceMock.getImageFormats())
+                .thenReturn(Arrays.asList(EventImageFormat.JPEG, EventImageFormat.PNG));
+        when(requestMock.selectVariant(anyListOf(Variant.class)))
+                .thenReturn(new Variant(new MediaType("image", "jpeg"), (String) null, null));
+        when(eventImageServiceMock.getImage(1L, EventImageSize.MEDIUM, EventImageFormat.JPEG))
+                .thenReturn(new EventImage(image, "etag", EventImageFormat.JPEG));
+
+        // act
+        final Response response = eventImageResource.getImage(requestMock, null, null, null);
+
+        // assert
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(response.getMediaType().toString(), is("image/jpeg"));
+        assertThat(response.getHeaderString(HttpHeaders.VARY), is("Accept"));
+        verify(eventImageServiceMock, times(1)).getImage(1L, EventImageSize.MEDIUM, EventImageFormat.JPEG);
+    }
+
+    @Test
+    public void getImageWithInvalidSize() {
+        // arrange
+
+        // act & assert
+        assertThrows(BadRequestException.class,
+                () -> eventImageResource.getImage(mock(Request.class), null, null, "huge"));
+    }
+
+    @Test
+    public void getImageTemporaryRedirectWithSize() throws IOException, URISyntaxException {
+        // arrange
+        when(eventImageServiceMock.getImage(1L, EventImageSize.LARGE, EventImageFormat.PNG))
+                .thenThrow(new NotFoundException());
+
+        // act
+        final Response response = eventImageResource.getImage(mock(Request.class), null, null, "large");
+
+        // assert
+        assertThat(response.getStatus(), is(TEMPORARY_REDIRECT.getStatusCode()));
+        assertThat(response.getLocation().toString(), is("http://placehold.it/700x400"));
     }
 
     @Test
     @Disabled // TODO Fix test: NoClassDefFoundError: org/apache/commons/logging/LogFactory
-    public void uploadImageWithOK() throws IOException, ServletException {
+    public void uploadImageWithOK() throws IOException, ServletException, URISyntaxException {
         // arrange
         final byte[] fileContent = readTestImage();
         final Part[] parts = new Part[] {
@@ -127,15 +328,28 @@ public class EventImageResourceTest {
         final HttpServletRequest httpServletRequestMock = mock(HttpServletRequest.class);
         when(httpServletRequestMock.getContentType()).thenReturn(contentType);
         when(httpServletRequestMock.getInputStream()).thenReturn(inputStreamMock);
+        final Path imageFile = Files.createTempFile("upload-", ".tmp");
+        when(eventImageServiceMock.createUploadFile()).thenReturn(imageFile);
+        when(eventImageServiceMock.getMaxUploadSize()).thenReturn(10485760L);
+        when(eventImageServiceMock.submitImage(1L, imageFile)).thenReturn("job");
+
+        final UriInfo uriInfoMock = mock(UriInfo.class);
+        final UriBuilder uriBuilderMock = mock(UriBuilder.class);
+        when(uriInfoMock.getAbsolutePathBuilder()).thenReturn(uriBuilderMock);
+        when(uriBuilderMock.path(anyString())).thenReturn(uriBuilderMock);
+        when(uriBuilderMock.build()).thenReturn(new URI("http://localhost:8080/sportchef/api/events/1/image/status/job"));
 
         // act
-        final Response response = eventImageResource.uploadImage(httpServletRequestMock);
+        final Response response = eventImageResource.uploadImage(httpServletRequestMock, uriInfoMock);
 
         // assert
-        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(response.getStatus(), is(ACCEPTED.getStatusCode()));
+        assertThat(response.getLocation().toString(), is("http://localhost:8080/sportchef/api/events/1/image/status/job"));
+        verify(uriBuilderMock, times(1)).path("job");
         verify(httpServletRequestMock, times(1)).getContentType();
         verify(httpServletRequestMock, times(1)).getInputStream();
-        verify(eventImageServiceMock, times(1)).uploadImage(anyLong(), anyObject());
+        verify(eventImageServiceMock, times(1)).submitImage(1L, imageFile);
+        assertThat(Files.readAllBytes(imageFile), is(fileContent));
     }
 
     @Test
@@ -149,7 +363,7 @@ public class EventImageResourceTest {
         when(httpServletRequestMock.getInputStream()).thenReturn(inputStreamMock);
 
         // act
-        final Response response = eventImageResource.uploadImage(httpServletRequestMock);
+        final Response response = eventImageResource.uploadImage(httpServletRequestMock, mock(UriInfo.class));
 
         // assert
         assertThat(response.getStatus(), is(BAD_REQUEST.getStatusCode()));
@@ -157,6 +371,29 @@ public class EventImageResourceTest {
         verify(httpServletRequestMock, times(1)).getInputStream();
     }
 
+    @Test
+    public void getUploadStatus() {
+        // arrange
+        final ImageUploadStatus status = new ImageUploadStatus(ImageUploadStatus.State.DONE, null);
+        when(eventImageServiceMock.getUploadStatus(1L, "job")).thenReturn(Optional.of(status));
+
+        // act
+        final ImageUploadStatus response = eventImageResource.getUploadStatus("job");
+
+        // assert
+        assertThat(response, is(status));
+    }
+
+    @Test
+    public void getUploadStatusNotFound() {
+        // arrange
+        when(eventImageServiceMock.getUploadStatus(1L, "job")).thenReturn(Optional.empty());
+
+        // act & assert
+        assertThrows(NotFoundException.class,
+                () -> eventImageResource.getUploadStatus("job"));
+    }
+
     @Test
     public void delete() {
         // arrange
@@ -17,14 +17,26 @@
  */
 package ch.sportchef.business.event.boundary;
 
+import ch.sportchef.business.ObjectMapperResolver;
 import ch.sportchef.business.event.control.EventImageService;
 import ch.sportchef.business.event.control.EventService;
 import ch.sportchef.business.event.entity.Event;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotAcceptableException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.core.Variant;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDate;
@@ -33,16 +45,46 @@ import java.time.Month;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.ws.rs.core.Response.Status.CREATED;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
 public class EventsResourceTest {
 
+    private static Providers createProvidersMock() {
+        final Providers providersMock = mock(Providers.class);
+        when(providersMock.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE))
+                .thenReturn(new ObjectMapperResolver());
+        return providersMock;
+    }
+
+    private static Request createRequestMock(@NotNull final MediaType mediaType) {
+        final Request requestMock = mock(Request.class);
+        when(requestMock.selectVariant(anyListOf(Variant.class))).thenReturn(new Variant(mediaType, (String) null, null));
+        return requestMock;
+    }
+
+    private static List<Event> createEvents() {
+        final Event event1 = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+        final List<Event> events = new ArrayList<>();
+        events.add(event1);
+        events.add(event1.toBuilder().eventId(2L).build());
+        return events;
+    }
+
     @Test
     public void saveWithSuccess() throws URISyntaxException {
         // arrange
@@ -102,7 +144,7 @@ public class EventsResourceTest {
         final EventsResource eventsResource = new EventsResource(eventServiceMock, eventImageServiceMock);
 
         // act
-        final Response response = eventsResource.findAll();
+        final Response response = eventsResource.findAll(null, null, null, null, false, null, null);
         final List<Event> list = (List<Event>) response.getEntity();
         final Event responseEvent1 = list.get(0);
         final Event responseEvent2 = list.get(1);
@@ -114,6 +156,132 @@ public class EventsResourceTest {
         verify(eventServiceMock, times(1)).findAll();
     }
 
+    @Test
+    public void findAllStreamed() throws IOException {
+        // arrange
+        final List<Event> events = createEvents();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findAll()).thenReturn(events);
+        when(eventServiceMock.streamAll()).thenReturn(events.stream());
+        final EventImageService eventImageServiceMock = mock(EventImageService.class);
+        final EventsResource eventsResource = new EventsResource(eventServiceMock, eventImageServiceMock);
+        final Providers providersMock = createProvidersMock();
+        final ObjectMapper objectMapper = providersMock
+                .getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE).getContext(Event.class);
+
+        // act
+        final Response response = eventsResource.findAll(null, null, null, null, true,
+                createRequestMock(MediaType.APPLICATION_JSON_TYPE), providersMock);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        final Response listResponse = eventsResource.findAll(null, null, null, null, false, null, null);
+
+        // assert
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(new String(output.toByteArray(), UTF_8),
+                is(objectMapper.writeValueAsString(listResponse.getEntity())));
+        verify(eventServiceMock, times(1)).streamAll();
+    }
+
+    @Test
+    public void findAllStreamedAsXml() {
+        // arrange
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageServiceMock = mock(EventImageService.class);
+        final EventsResource eventsResource = new EventsResource(eventServiceMock, eventImageServiceMock);
+
+        // act & assert
+        assertThrows(NotAcceptableException.class,
+                () -> eventsResource.findAll(null, null, null, null, true,
+                        createRequestMock(MediaType.APPLICATION_XML_TYPE), createProvidersMock()));
+        verify(eventServiceMock, never()).streamAll();
+    }
+
+    @Test
+    public void findAllStreamedWithPaging() {
+        // arrange
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageServiceMock = mock(EventImageService.class);
+        final EventsResource eventsResource = new EventsResource(eventServiceMock, eventImageServiceMock);
+
+        // act & assert
+        assertThrows(BadRequestException.class,
+                () -> eventsResource.findAll(null, null, "cursor", null, true,
+                        createRequestMock(MediaType.APPLICATION_JSON_TYPE), createProvidersMock()));
+        verify(eventServiceMock, never()).streamAll();
+    }
+
+    @Test
+    public void findAllPaginated() {
+        // arrange
+        final Event event1 = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+        final List<Event> events = new ArrayList<>();
+        events.add(event1);
+        final LocalDate from = LocalDate.of(2099, Month.JANUARY, 1);
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findAll(from, null, null, 1)).thenReturn(events);
+        when(eventServiceMock.createCursor(event1)).thenReturn("nextCursor");
+        final EventImageService eventImageServiceMock = mock(EventImageService.class);
+        final EventsResource eventsResource = new EventsResource(eventServiceMock, eventImageServiceMock);
+
+        // act
+        final Response response = eventsResource.findAll("2099-01-01", null, null, 1, false, null, null);
+        final List<Event> list = (List<Event>) response.getEntity();
+
+        // assert
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(list.size(), is(1));
+        assertThat(list.get(0), is(event1));
+        assertThat(response.getHeaderString("Next-Cursor"), is("nextCursor"));
+        verify(eventServiceMock, times(1)).findAll(from, null, null, 1);
+        verify(eventServiceMock, never()).findAll();
+    }
+
+    @Test
+    public void findAllWithInvalidDate() {
+        // arrange
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageServiceMock = mock(EventImageService.class);
+        final EventsResource eventsResource = new EventsResource(eventServiceMock, eventImageServiceMock);
+
+        // act & assert
+        assertThrows(BadRequestException.class,
+                () -> eventsResource.findAll("tomorrow", null, null, null, false, null, null));
+    }
+
+    @Test
+    public void findAllWithInvertedRange() {
+        // arrange
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageServiceMock = mock(EventImageService.class);
+        final EventsResource eventsResource = new EventsResource(eventServiceMock, eventImageServiceMock);
+
+        // act & assert
+        assertThrows(BadRequestException.class,
+                () -> eventsResource.findAll("2099-03-01", "2099-01-01", null, null, false, null, null));
+        verifyZeroInteractions(eventServiceMock);
+    }
+
+    @Test
+    public void findAllWithInvalidCursor() {
+        // arrange
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findAll(null, null, "invalid", 1))
+                .thenThrow(new IllegalArgumentException("invalid cursor 'invalid'"));
+        final EventImageService eventImageServiceMock = mock(EventImageService.class);
+        final EventsResource eventsResource = new EventsResource(eventServiceMock, eventImageServiceMock);
+
+        // act & assert
+        assertThrows(BadRequestException.class,
+                () -> eventsResource.findAll(null, null, "invalid", 1, false, null, null));
+    }
+
     @Test
     public void find() {
         // arrange
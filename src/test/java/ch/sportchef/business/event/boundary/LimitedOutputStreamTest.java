@@ -0,0 +1,60 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.boundary;
+
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.ClientErrorException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LimitedOutputStreamTest {
+
+    @Test
+    public void writeWithinLimit() throws IOException {
+        // arrange
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final OutputStream outputStream = new LimitedOutputStream(target, 4);
+
+        // act
+        outputStream.write(new byte[] {1, 2, 3}, 0, 3);
+        outputStream.write(4);
+
+        // assert
+        assertThat(target.toByteArray(), is(new byte[] {1, 2, 3, 4}));
+    }
+
+    @Test
+    public void writeExceedingLimit() throws IOException {
+        // arrange
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final OutputStream outputStream = new LimitedOutputStream(target, 4);
+        outputStream.write(new byte[] {1, 2, 3}, 0, 3);
+
+        // act & assert
+        assertThrows(ClientErrorException.class,
+                () -> outputStream.write(new byte[] {4, 5}, 0, 2));
+        assertThat(target.size(), is(3));
+    }
+
+}
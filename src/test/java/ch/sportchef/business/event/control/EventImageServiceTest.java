@@ -17,8 +17,16 @@
  */
 package ch.sportchef.business.event.control;
 
+import ch.sportchef.business.configuration.control.ConfigurationService;
+import ch.sportchef.business.configuration.entity.Configuration;
 import ch.sportchef.business.event.entity.Event;
+import ch.sportchef.business.event.entity.EventImage;
+import ch.sportchef.business.event.entity.EventImageFormat;
+import ch.sportchef.business.event.entity.EventImageSize;
+import ch.sportchef.business.event.entity.ImageUploadStatus;
+import com.codahale.metrics.MetricRegistry;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -26,19 +34,33 @@ import javax.imageio.ImageIO;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.NotFoundException;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class EventImageServiceTest {
@@ -48,6 +70,9 @@ public class EventImageServiceTest {
     private static String realUserHome;
     private static String tempUserHome;
     private static File imageUploadPath;
+    private static File blobPath;
+
+    private final List<EventImageService> eventImageServices = new ArrayList<>();
 
     @BeforeAll
     public static void setUp() throws IOException {
@@ -58,6 +83,7 @@ public class EventImageServiceTest {
         final String imageUploadFolder = String.format("%s%s.sportchef%simages%sevents", //NON-NLS
                 tempUserHome, File.separator, File.separator, File.separator);
         imageUploadPath = new File(imageUploadFolder);
+        blobPath = new File(imageUploadPath.getParentFile(), "blobs");
     }
 
     @AfterAll
@@ -65,6 +91,42 @@ public class EventImageServiceTest {
         System.setProperty("user.home", realUserHome);
     }
 
+    @AfterEach
+    public void cleanupServices() {
+        eventImageServices.forEach(EventImageService::cleanupResources);
+        eventImageServices.clear();
+    }
+
+    private EventImageService createEventImageService(@NotNull final EventService eventService,
+                                                      @NotNull final MetricRegistry metricRegistry) {
+        return createEventImageService(eventService, createConfigurationServiceMock(), metricRegistry);
+    }
+
+    private EventImageService createEventImageService(@NotNull final EventService eventService,
+                                                      @NotNull final ConfigurationService configurationService,
+                                                      @NotNull final MetricRegistry metricRegistry) {
+        final EventImageService eventImageService =
+                new EventImageService(eventService, configurationService, metricRegistry);
+        eventImageService.setupResources();
+        eventImageServices.add(eventImageService);
+        return eventImageService;
+    }
+
+    private static ConfigurationService createConfigurationServiceMock() {
+        return createConfigurationServiceMock("jpeg,png");
+    }
+
+    private static ConfigurationService createConfigurationServiceMock(@NotNull final String imageFormats) {
+        final Configuration configurationMock = mock(Configuration.class);
+        when(configurationMock.getImageUploadMaxSize()).thenReturn(10485760L);
+        when(configurationMock.getImageFormats()).thenReturn(imageFormats);
+        when(configurationMock.getImageJpegQuality()).thenReturn(0.85f);
+        when(configurationMock.getImageWebpQuality()).thenReturn(0.8f);
+        final ConfigurationService configurationServiceMock = mock(ConfigurationService.class);
+        when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        return configurationServiceMock;
+    }
+
     private byte[] readTestImage() throws URISyntaxException, IOException {
         final Thread currentThread = Thread.currentThread();
         final ClassLoader classLoader = currentThread.getContextClassLoader();
@@ -84,9 +146,30 @@ public class EventImageServiceTest {
         return bytes;
     }
 
-    private BufferedImage readStoredImage(@NotNull final Long eventId) throws IOException {
-        final File file = Paths.get(imageUploadPath.getPath(), String.valueOf(eventId).concat(".png")).toFile();
-        return file.exists() ? ImageIO.read(file) : null;
+    private static byte[] createRandomImage() throws IOException {
+        // unique content which is not shared with images stored by other tests
+        final BufferedImage image = new BufferedImage(350, 200, BufferedImage.TYPE_INT_RGB);
+        final Random random = new Random();
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream); //NON-NLS
+        return outputStream.toByteArray();
+    }
+
+    private BufferedImage readStoredImage(@NotNull final EventImageService eventImageService,
+                                          @NotNull final Long eventId) throws IOException {
+        try {
+            final EventImage image = eventImageService.getImage(eventId);
+            return image.getData() != null
+                    ? ImageIO.read(new ByteArrayInputStream(image.getData()))
+                    : ImageIO.read(image.getPath().toFile());
+        } catch (final NotFoundException e) {
+            return null;
+        }
     }
 
     @Test
@@ -95,13 +178,113 @@ public class EventImageServiceTest {
         final Long eventId = 1L;
         final byte[] bytes = prepareAndReturnTestImage(eventId);
         final EventService eventServiceMock = mock(EventService.class);
-        final EventImageService eventImageService = new EventImageService(eventServiceMock);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        final EventImage image = eventImageService.getImage(eventId);
+
+        // assert
+        assertThat(image.getData(), is(bytes));
+        assertThat(image.getEntityTag().length(), is(64));
+    }
+
+    @Test
+    public void getImageFromCache() throws IOException, URISyntaxException {
+        // arrange
+        final Long eventId = 7L;
+        prepareAndReturnTestImage(eventId);
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        final EventImage image1 = eventImageService.getImage(eventId);
+        final EventImage image2 = eventImageService.getImage(eventId);
+
+        // assert
+        assertThat(image2, is(sameInstance(image1)));
+    }
+
+    @Test
+    public void getImageAfterUpload() throws IOException, URISyntaxException {
+        // arrange
+        final Long eventId = 8L;
+        final byte[] bytes = prepareAndReturnTestImage(eventId);
+        final Event event = Event.builder().eventId(eventId).build();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+        final EventImage originalImage = eventImageService.getImage(eventId);
+
+        // act
+        eventImageService.uploadImage(eventId, bytes);
+        final EventImage uploadedImage = eventImageService.getImage(eventId);
+
+        // assert
+        assertThat(uploadedImage, is(not(sameInstance(originalImage))));
+        assertThat(uploadedImage.getData(), is(Files.readAllBytes(
+                new File(blobPath, uploadedImage.getEntityTag()).toPath())));
+    }
+
+    @Test
+    public void getLegacyImageConcurrently() throws IOException, URISyntaxException, InterruptedException {
+        // arrange
+        final Long eventId = 26L;
+        final byte[] bytes = prepareAndReturnTestImage(eventId);
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<EventImage> images = new CopyOnWriteArrayList<>();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final Thread reader = new Thread(() -> {
+                try {
+                    start.await();
+                    images.add(eventImageService.getImage(eventId));
+                } catch (final IOException | InterruptedException | RuntimeException e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        // act
+        start.countDown();
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+
+        // assert
+        assertThat(failure.get(), nullValue());
+        assertThat(images.size(), is(8));
+        for (final EventImage image : images) {
+            assertThat(image.getData(), is(bytes));
+        }
+    }
+
+    @Test
+    public void getLargeImageFromFile() throws IOException {
+        // arrange
+        final Long eventId = 9L;
+        final byte[] bytes = new byte[512 * 1024];
+        new Random().nextBytes(bytes);
+        if (!imageUploadPath.exists()) {
+            imageUploadPath.mkdirs();
+        }
+        final Path file = Paths.get(imageUploadPath.getPath(), String.valueOf(eventId).concat(".png"));
+        Files.write(file, bytes);
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
 
         // act
-        final byte[] image = eventImageService.getImage(eventId);
+        final EventImage image = eventImageService.getImage(eventId);
 
         // assert
-        assertThat(image, is(bytes));
+        assertThat(image.getData(), nullValue());
+        assertThat(image.getPath(), is(new File(blobPath, image.getEntityTag()).toPath()));
+        assertThat(image.getLength(), is((long) bytes.length));
+        assertThat(Files.exists(file), is(false));
     }
 
     @Test
@@ -109,7 +292,7 @@ public class EventImageServiceTest {
         // arrange
         final Long eventId = 2L;
         final EventService eventServiceMock = mock(EventService.class);
-        final EventImageService eventImageService = new EventImageService(eventServiceMock);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
 
         // act & assert
         assertThrows(NotFoundException.class,
@@ -124,16 +307,393 @@ public class EventImageServiceTest {
         final Event event = Event.builder().eventId(eventId).build();
         final EventService eventServiceMock = mock(EventService.class);
         when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
-        final EventImageService eventImageService = new EventImageService(eventServiceMock);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
 
         // act
         eventImageService.uploadImage(eventId, bytes);
 
         // assert
-        final BufferedImage image = readStoredImage(eventId);
+        final BufferedImage image = readStoredImage(eventImageService, eventId);
         assertThat(image, notNullValue());
     }
 
+    @Test
+    public void uploadLargeImage() throws IOException {
+        // arrange
+        final Long eventId = 13L;
+        final BufferedImage largeImage = new BufferedImage(3500, 2000, BufferedImage.TYPE_INT_RGB);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(largeImage, "png", outputStream);
+        final Event event = Event.builder().eventId(eventId).build();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        eventImageService.uploadImage(eventId, outputStream.toByteArray());
+
+        // assert
+        final BufferedImage image = readStoredImage(eventImageService, eventId);
+        assertThat(image.getWidth(), is(350));
+        assertThat(image.getHeight(), is(200));
+    }
+
+    @Test
+    public void uploadImageCreatesVariants() throws IOException, URISyntaxException {
+        // arrange
+        final Long eventId = 14L;
+        final byte[] bytes = readTestImage();
+        final Event event = Event.builder().eventId(eventId).build();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        eventImageService.uploadImage(eventId, bytes);
+
+        // assert
+        for (final EventImageSize size : EventImageSize.values()) {
+            final EventImage eventImage = eventImageService.getImage(eventId, size);
+            final BufferedImage image = ImageIO.read(new ByteArrayInputStream(eventImage.getData()));
+            assertThat(image.getWidth(), is(size.getWidth()));
+            assertThat(image.getHeight(), is(size.getHeight()));
+        }
+    }
+
+    @Test
+    public void getImageVariantFallsBackToMedium() throws IOException, URISyntaxException {
+        // arrange
+        final Long eventId = 15L;
+        final byte[] bytes = prepareAndReturnTestImage(eventId);
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        final EventImage eventImage = eventImageService.getImage(eventId, EventImageSize.SMALL);
+
+        // assert
+        assertThat(eventImage.getData(), is(bytes));
+    }
+
+    @Test
+    public void deleteImageWithVariants() throws IOException, URISyntaxException {
+        // arrange
+        final Long eventId = 16L;
+        final Event event = Event.builder().eventId(eventId).build();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+        eventImageService.uploadImage(eventId, readTestImage());
+
+        // act
+        eventImageService.deleteImage(eventId);
+
+        // assert
+        for (final EventImageSize size : EventImageSize.values()) {
+            assertThrows(NotFoundException.class,
+                    () -> eventImageService.getImage(eventId, size));
+        }
+    }
+
+    @Test
+    public void uploadImageCreatesFormats() throws IOException, URISyntaxException {
+        // arrange
+        final Long eventId = 17L;
+        final Event event = Event.builder().eventId(eventId).build();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        eventImageService.uploadImage(eventId, readTestImage());
+
+        // assert
+        assertThat(eventImageService.getImageFormats(), is(Arrays.asList(EventImageFormat.JPEG, EventImageFormat.PNG)));
+        final EventImage jpegImage = eventImageService.getImage(eventId, EventImageSize.MEDIUM, EventImageFormat.JPEG);
+        assertThat(jpegImage.getFormat(), is(EventImageFormat.JPEG));
+        final EventImage pngImage = eventImageService.getImage(eventId, EventImageSize.MEDIUM, EventImageFormat.PNG);
+        assertThat(pngImage.getFormat(), is(EventImageFormat.PNG));
+        assertThat(jpegImage.getEntityTag().equals(pngImage.getEntityTag()), is(false));
+    }
+
+    @Test
+    public void getImageFormatFallsBackToPng() throws IOException, URISyntaxException {
+        // arrange
+        final Long eventId = 18L;
+        final Event event = Event.builder().eventId(eventId).build();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock,
+                createConfigurationServiceMock("png"), new MetricRegistry());
+        eventImageService.uploadImage(eventId, readTestImage());
+
+        // act
+        final EventImage image = eventImageService.getImage(eventId, EventImageSize.MEDIUM, EventImageFormat.JPEG);
+
+        // assert
+        assertThat(image.getFormat(), is(EventImageFormat.PNG));
+    }
+
+    @Test
+    public void uploadIdenticalImagesStoresContentOnce() throws IOException, URISyntaxException {
+        // arrange
+        final Long firstEventId = 20L;
+        final Long secondEventId = 21L;
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(firstEventId))
+                .thenReturn(Optional.of(Event.builder().eventId(firstEventId).build()));
+        when(eventServiceMock.findByEventId(secondEventId))
+                .thenReturn(Optional.of(Event.builder().eventId(secondEventId).build()));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+        final byte[] bytes = readTestImage();
+        eventImageService.uploadImage(firstEventId, bytes);
+        final int blobCount = blobPath.list().length;
+
+        // act
+        eventImageService.uploadImage(secondEventId, bytes);
+        eventImageService.uploadImage(secondEventId, bytes);
+
+        // assert
+        assertThat(blobPath.list().length, is(blobCount));
+        assertThat(eventImageService.getImage(secondEventId).getEntityTag(),
+                is(eventImageService.getImage(firstEventId).getEntityTag()));
+    }
+
+    @Test
+    public void deleteImageKeepsSharedContent() throws IOException, URISyntaxException {
+        // arrange
+        final Long firstEventId = 22L;
+        final Long secondEventId = 23L;
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(firstEventId))
+                .thenReturn(Optional.of(Event.builder().eventId(firstEventId).build()));
+        when(eventServiceMock.findByEventId(secondEventId))
+                .thenReturn(Optional.of(Event.builder().eventId(secondEventId).build()));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+        final byte[] bytes = createRandomImage();
+        eventImageService.uploadImage(firstEventId, bytes);
+        eventImageService.uploadImage(secondEventId, bytes);
+        final File blob = new File(blobPath, eventImageService.getImage(firstEventId).getEntityTag());
+
+        // act
+        eventImageService.deleteImage(firstEventId);
+
+        // assert
+        assertThat(blob.exists(), is(true));
+        assertThat(readStoredImage(eventImageService, secondEventId), notNullValue());
+        eventImageService.deleteImage(secondEventId);
+        assertThat(blob.exists(), is(false));
+    }
+
+    @Test
+    public void getImageWithMissingBlob() throws IOException {
+        // arrange
+        final Long eventId = 24L;
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId))
+                .thenReturn(Optional.of(Event.builder().eventId(eventId).build()));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+        eventImageService.uploadImage(eventId, createRandomImage());
+        final String entityTag = eventImageService.getImage(eventId, EventImageSize.SMALL).getEntityTag();
+        eventImageService.cleanupResources();
+        eventImageServices.remove(eventImageService);
+        Files.delete(new File(blobPath, entityTag).toPath());
+        final EventImageService restartedService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act & assert
+        assertThrows(NotFoundException.class,
+                () -> restartedService.getImage(eventId, EventImageSize.SMALL));
+    }
+
+    @Test
+    public void getImageWhileUploading() throws IOException, InterruptedException {
+        // arrange
+        final Long eventId = 25L;
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId))
+                .thenReturn(Optional.of(Event.builder().eventId(eventId).build()));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+        eventImageService.uploadImage(eventId, createRandomImage());
+        final AtomicBoolean uploading = new AtomicBoolean(true);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Thread reader = new Thread(() -> {
+            try {
+                while (uploading.get()) {
+                    // every upload releases the previous blob, readers must get the old or the new image
+                    eventImageService.getImage(eventId);
+                }
+            } catch (final IOException | RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+
+        // act
+        try {
+            for (int i = 0; i < 10; i++) {
+                eventImageService.uploadImage(eventId, createRandomImage());
+            }
+        } finally {
+            uploading.set(false);
+            reader.join();
+        }
+
+        // assert
+        assertThat(failure.get(), nullValue());
+    }
+
+    @Test
+    public void submitImage() throws IOException, URISyntaxException, InterruptedException {
+        // arrange
+        final Long eventId = 10L;
+        final byte[] bytes = readTestImage();
+        final Event event = Event.builder().eventId(eventId).build();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, metricRegistry);
+
+        final Path imageFile = eventImageService.createUploadFile();
+        Files.write(imageFile, bytes);
+
+        // act
+        final String jobId = eventImageService.submitImage(eventId, imageFile);
+        final ImageUploadStatus status = waitForUpload(eventImageService, eventId, jobId);
+
+        // assert
+        assertThat(status.getState(), is(ImageUploadStatus.State.DONE));
+        assertThat(readStoredImage(eventImageService, eventId), notNullValue());
+        assertThat(Files.exists(imageFile), is(false));
+        assertThat(metricRegistry.timer(MetricRegistry.name(EventImageService.class, "decode")).getCount(), is(1L));
+        assertThat(metricRegistry.timer(MetricRegistry.name(EventImageService.class, "color")).getCount(), is(1L));
+    }
+
+    @Test
+    public void submitInvalidImage() throws IOException, InterruptedException {
+        // arrange
+        final Long eventId = 11L;
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId))
+                .thenReturn(Optional.of(Event.builder().eventId(eventId).build()));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        final Path imageFile = eventImageService.createUploadFile();
+        Files.write(imageFile, "no image".getBytes());
+
+        // act
+        final String jobId = eventImageService.submitImage(eventId, imageFile);
+        final ImageUploadStatus status = waitForUpload(eventImageService, eventId, jobId);
+
+        // assert
+        assertThat(status.getState(), is(ImageUploadStatus.State.FAILED));
+        assertThat(status.getError(), notNullValue());
+        assertThat(Files.exists(imageFile), is(false));
+    }
+
+    @Test
+    public void submitImageForDeletedEvent() throws IOException, InterruptedException {
+        // arrange
+        final Long eventId = 27L;
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.empty());
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        final Path imageFile = eventImageService.createUploadFile();
+        Files.write(imageFile, createRandomImage());
+
+        // act
+        final String jobId = eventImageService.submitImage(eventId, imageFile);
+        final ImageUploadStatus status = waitForUpload(eventImageService, eventId, jobId);
+
+        // assert
+        assertThat(status.getState(), is(ImageUploadStatus.State.FAILED));
+        assertThat(status.getError(), notNullValue());
+        assertThat(readStoredImage(eventImageService, eventId), nullValue());
+        assertThat(Files.exists(imageFile), is(false));
+    }
+
+    @Test
+    public void uploadImageForEventDeletedWhileRendering() throws IOException {
+        // arrange
+        final Long eventId = 28L;
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId))
+                .thenReturn(Optional.of(Event.builder().eventId(eventId).build()), Optional.empty());
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+        final int blobCount = blobPath.list().length;
+
+        // act & assert
+        assertThrows(NotFoundException.class,
+                () -> eventImageService.uploadImage(eventId, createRandomImage()));
+        assertThat(readStoredImage(eventImageService, eventId), nullValue());
+        assertThat(blobPath.list().length, is(blobCount));
+    }
+
+    @Test
+    public void submitImagesConcurrently() throws IOException, URISyntaxException, InterruptedException {
+        // arrange
+        final Long eventId = 29L;
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId))
+                .thenReturn(Optional.of(Event.builder().eventId(eventId).build()));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        final Path firstImageFile = eventImageService.createUploadFile();
+        Files.write(firstImageFile, readTestImage());
+        final Path secondImageFile = eventImageService.createUploadFile();
+        Files.write(secondImageFile, "no image".getBytes());
+
+        // act
+        final String firstJobId = eventImageService.submitImage(eventId, firstImageFile);
+        final String secondJobId = eventImageService.submitImage(eventId, secondImageFile);
+
+        // assert
+        assertThat(firstJobId, not(secondJobId));
+        assertThat(waitForUpload(eventImageService, eventId, firstJobId).getState(),
+                is(ImageUploadStatus.State.DONE));
+        assertThat(waitForUpload(eventImageService, eventId, secondJobId).getState(),
+                is(ImageUploadStatus.State.FAILED));
+        assertThat(eventImageService.getUploadStatus(eventId + 1, firstJobId).isPresent(), is(false));
+    }
+
+    @Test
+    public void getMaxUploadSize() {
+        // arrange
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        final long maxUploadSize = eventImageService.getMaxUploadSize();
+
+        // assert
+        assertThat(maxUploadSize, is(10485760L));
+    }
+
+    @Test
+    public void getUploadStatusWithoutUpload() {
+        // arrange
+        final EventService eventServiceMock = mock(EventService.class);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        final Optional<ImageUploadStatus> status = eventImageService.getUploadStatus(12L, "job");
+
+        // assert
+        assertThat(status.isPresent(), is(false));
+    }
+
+    private ImageUploadStatus waitForUpload(@NotNull final EventImageService eventImageService,
+                                            @NotNull final Long eventId,
+                                            @NotNull final String jobId) throws InterruptedException {
+        ImageUploadStatus status = eventImageService.getUploadStatus(eventId, jobId).get();
+        for (int i = 0; i < 100 && (status.getState() == ImageUploadStatus.State.QUEUED
+                || status.getState() == ImageUploadStatus.State.PROCESSING); i++) {
+            Thread.sleep(100);
+            status = eventImageService.getUploadStatus(eventId, jobId).get();
+        }
+        return status;
+    }
+
     @Test
     public void chooseRandomDefaultImage() throws IOException {
         // arrange
@@ -141,29 +701,50 @@ public class EventImageServiceTest {
         final Event event = Event.builder().eventId(eventId).build();
         final EventService eventServiceMock = mock(EventService.class);
         when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
-        final EventImageService eventImageService = new EventImageService(eventServiceMock);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
 
         // act
         eventImageService.chooseRandomDefaultImage(eventId);
 
         // assert
-        final BufferedImage image = readStoredImage(eventId);
+        final BufferedImage image = readStoredImage(eventImageService, eventId);
         assertThat(image, notNullValue());
     }
 
+    @Test
+    public void chooseRandomDefaultImageReusesRenderedImages() throws IOException {
+        // arrange
+        final Long eventId = 19L;
+        final Event event = Event.builder().eventId(eventId).build();
+        final EventService eventServiceMock = mock(EventService.class);
+        when(eventServiceMock.findByEventId(eventId)).thenReturn(Optional.of(event));
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
+
+        // act
+        eventImageService.chooseRandomDefaultImage(eventId);
+
+        // assert
+        final EventImage image = eventImageService.getImage(eventId, EventImageSize.SMALL, EventImageFormat.JPEG);
+        assertThat(image.getFormat(), is(EventImageFormat.JPEG));
+        assertThat(Files.exists(new File(blobPath, image.getEntityTag()).toPath()), is(true));
+        assertThat(Files.exists(Paths.get(imageUploadPath.getPath(), String.valueOf(eventId).concat(".png"))),
+                is(false));
+        verify(eventServiceMock, times(1)).update(any(Event.class));
+    }
+
     @Test
     public void deleteImage() throws IOException, URISyntaxException {
         // arrange
         final Long eventId = 5L;
         prepareAndReturnTestImage(eventId);
         final EventService eventServiceMock = mock(EventService.class);
-        final EventImageService eventImageService = new EventImageService(eventServiceMock);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
 
         // act
         eventImageService.deleteImage(eventId);
 
         // assert
-        final BufferedImage image = readStoredImage(eventId);
+        final BufferedImage image = readStoredImage(eventImageService, eventId);
         assertThat(image, nullValue());
     }
 
@@ -172,7 +753,7 @@ public class EventImageServiceTest {
         // arrange
         final Long eventId = 6L;
         final EventService eventServiceMock = mock(EventService.class);
-        final EventImageService eventImageService = new EventImageService(eventServiceMock);
+        final EventImageService eventImageService = createEventImageService(eventServiceMock, new MetricRegistry());
 
         // act & assert
         assertThrows(NotFoundException.class,
@@ -35,11 +35,16 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public class EventRepositoryTest {
 
     private Event createEvent(@NotNull final EventRepository eventRepository) {
+        return createEvent(eventRepository, LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(22, 0));
+    }
+
+    private Event createEvent(@NotNull final EventRepository eventRepository,
+                              @NotNull final LocalDate date, @NotNull final LocalTime time) {
         final Event baseEvent = Event.builder()
                 .title("Testevent")
                 .location("Testlocation")
-                .date(LocalDate.of(2099, Month.DECEMBER, 31))
-                .time(LocalTime.of(22, 0))
+                .date(date)
+                .time(time)
                 .build();
 
         return eventRepository.create(baseEvent);
@@ -123,6 +128,114 @@ public class EventRepositoryTest {
         assertThat(eventList.get(1), is(event2));
     }
 
+    @Test
+    public void findAllOrderedByDateAndTime() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository, LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(22, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(8, 0));
+        final Event event3 = createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(23, 0));
+
+        // act
+        final List<Event> eventList = eventRepository.findAll();
+
+        // assert
+        assertThat(eventList.size(), is(3));
+        assertThat(eventList.get(0), is(event3));
+        assertThat(eventList.get(1), is(event2));
+        assertThat(eventList.get(2), is(event1));
+    }
+
+    @Test
+    public void findAllOrderedAfterUpdate() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(8, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.JUNE, 1), LocalTime.of(8, 0));
+        final Event eventToUpdate = event1.toBuilder()
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .build();
+
+        // act
+        final Event updatedEvent = eventRepository.update(eventToUpdate);
+        final List<Event> eventList = eventRepository.findAll();
+
+        // assert
+        assertThat(eventList.size(), is(2));
+        assertThat(eventList.get(0), is(event2));
+        assertThat(eventList.get(1), is(updatedEvent));
+    }
+
+    @Test
+    public void findAllPaginatedWithCursor() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(8, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.FEBRUARY, 1), LocalTime.of(8, 0));
+        final Event event3 = createEvent(eventRepository, LocalDate.of(2099, Month.MARCH, 1), LocalTime.of(8, 0));
+
+        // act
+        final List<Event> page1 = eventRepository.findAll(null, null, null, 2);
+        final String cursor = EventRepository.EventKey.of(page1.get(1)).toCursor();
+        createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 15), LocalTime.of(8, 0));
+        final List<Event> page2 = eventRepository.findAll(null, null, EventRepository.EventKey.fromCursor(cursor), 2);
+
+        // assert
+        assertThat(page1.size(), is(2));
+        assertThat(page1.get(0), is(event1));
+        assertThat(page1.get(1), is(event2));
+        assertThat(page2.size(), is(1));
+        assertThat(page2.get(0), is(event3));
+    }
+
+    @Test
+    public void findAllInDateRange() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(8, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.FEBRUARY, 1), LocalTime.of(0, 0));
+        final Event event3 = createEvent(eventRepository, LocalDate.of(2099, Month.MARCH, 1), LocalTime.of(23, 59));
+        createEvent(eventRepository, LocalDate.of(2099, Month.APRIL, 1), LocalTime.of(8, 0));
+
+        // act
+        final List<Event> eventList = eventRepository.findAll(
+                LocalDate.of(2099, Month.FEBRUARY, 1), LocalDate.of(2099, Month.MARCH, 1), null, 10);
+
+        // assert
+        assertThat(eventList.size(), is(2));
+        assertThat(eventList.get(0), is(event2));
+        assertThat(eventList.get(1), is(event3));
+    }
+
+    @Test
+    public void findAllWithCursorPastRange() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(8, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.APRIL, 1), LocalTime.of(8, 0));
+
+        // act
+        final List<Event> eventList = eventRepository.findAll(LocalDate.of(2099, Month.JANUARY, 1),
+                LocalDate.of(2099, Month.MARCH, 1), EventRepository.EventKey.of(event2), 10);
+
+        // assert
+        assertThat(eventList.isEmpty(), is(true));
+    }
+
+    @Test
+    public void findAllWithInvertedRange() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        createEvent(eventRepository, LocalDate.of(2099, Month.FEBRUARY, 1), LocalTime.of(8, 0));
+
+        // act
+        final List<Event> eventList = eventRepository.findAll(
+                LocalDate.of(2099, Month.MARCH, 1), LocalDate.of(2099, Month.JANUARY, 1), null, 10);
+
+        // assert
+        assertThat(eventList.isEmpty(), is(true));
+    }
+
     @Test
     public void findAllNotFound() {
         // arrange
@@ -147,6 +260,7 @@ public class EventRepositoryTest {
 
         // assert
         assertThat(eventRepository.findByEventId(event.getEventId()), is(Optional.empty()));
+        assertThat(eventRepository.findAll().isEmpty(), is(true));
     }
 
     @Test
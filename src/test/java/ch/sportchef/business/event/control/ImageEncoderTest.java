@@ -0,0 +1,100 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import ch.sportchef.business.event.entity.EventImageFormat;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ImageEncoderTest {
+
+    private static BufferedImage createImage(final int type, final int rgb) {
+        final BufferedImage image = new BufferedImage(64, 32, type);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void isSupported() {
+        // act & assert
+        assertThat(ImageEncoder.isSupported(EventImageFormat.PNG), is(true));
+        assertThat(ImageEncoder.isSupported(EventImageFormat.JPEG), is(true));
+    }
+
+    @Test
+    public void encodePng() throws IOException {
+        // arrange
+        final ImageEncoder encoder = new ImageEncoder(EventImageFormat.PNG, null);
+        final BufferedImage image = createImage(BufferedImage.TYPE_INT_ARGB, 0x80FF0000);
+
+        // act
+        final byte[] data = encoder.encode(image);
+
+        // assert
+        final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(data));
+        assertThat(decoded.getWidth(), is(64));
+        assertThat(decoded.getHeight(), is(32));
+        assertThat(decoded.getRGB(10, 10), is(0x80FF0000));
+    }
+
+    @Test
+    public void encodeJpegWithQuality() throws IOException {
+        // arrange
+        final BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 4) << 16 | (y * 8) << 8 | (x + y));
+            }
+        }
+
+        // act
+        final byte[] lowQuality = new ImageEncoder(EventImageFormat.JPEG, 0.1f).encode(image);
+        final byte[] highQuality = new ImageEncoder(EventImageFormat.JPEG, 0.95f).encode(image);
+
+        // assert
+        assertThat(ImageIO.read(new ByteArrayInputStream(lowQuality)).getWidth(), is(64));
+        assertThat(lowQuality.length < highQuality.length, is(true));
+    }
+
+    @Test
+    public void encodeJpegFlattensAlpha() throws IOException {
+        // arrange
+        final ImageEncoder encoder = new ImageEncoder(EventImageFormat.JPEG, 0.95f);
+        final BufferedImage image = createImage(BufferedImage.TYPE_INT_ARGB, 0x00000000);
+
+        // act
+        final byte[] data = encoder.encode(image);
+
+        // assert
+        final Color color = new Color(ImageIO.read(new ByteArrayInputStream(data)).getRGB(10, 10));
+        assertThat(color.getRed() > 250 && color.getGreen() > 250 && color.getBlue() > 250, is(true));
+    }
+
+}
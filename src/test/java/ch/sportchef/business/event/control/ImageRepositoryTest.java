@@ -0,0 +1,156 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ImageRepositoryTest {
+
+    @Test
+    public void linkNewName() {
+        // arrange
+        final ImageRepository imageRepository = new ImageRepository();
+
+        // act
+        final String releasedBlobId = imageRepository.link("1.png", "abc");
+
+        // assert
+        assertThat(releasedBlobId, nullValue());
+        assertThat(imageRepository.find("1.png").get(), is("abc"));
+        assertThat(imageRepository.countReferences("abc"), is(1));
+    }
+
+    @Test
+    public void linkSharedBlob() {
+        // arrange
+        final ImageRepository imageRepository = new ImageRepository();
+        imageRepository.link("1.png", "abc");
+
+        // act
+        final String releasedBlobId = imageRepository.link("2.png", "abc");
+
+        // assert
+        assertThat(releasedBlobId, nullValue());
+        assertThat(imageRepository.countReferences("abc"), is(2));
+    }
+
+    @Test
+    public void linkSameBlobAgain() {
+        // arrange
+        final ImageRepository imageRepository = new ImageRepository();
+        imageRepository.link("1.png", "abc");
+
+        // act
+        final String releasedBlobId = imageRepository.link("1.png", "abc");
+
+        // assert
+        assertThat(releasedBlobId, nullValue());
+        assertThat(imageRepository.countReferences("abc"), is(1));
+    }
+
+    @Test
+    public void linkReplacesLastReference() {
+        // arrange
+        final ImageRepository imageRepository = new ImageRepository();
+        imageRepository.link("1.png", "abc");
+
+        // act
+        final String releasedBlobId = imageRepository.link("1.png", "def");
+
+        // assert
+        assertThat(releasedBlobId, is("abc"));
+        assertThat(imageRepository.countReferences("abc"), is(0));
+        assertThat(imageRepository.find("1.png").get(), is("def"));
+    }
+
+    @Test
+    public void unlinkSharedBlob() {
+        // arrange
+        final ImageRepository imageRepository = new ImageRepository();
+        imageRepository.link("1.png", "abc");
+        imageRepository.link("2.png", "abc");
+
+        // act
+        final String releasedBlobId = imageRepository.unlink("1.png");
+
+        // assert
+        assertThat(releasedBlobId, nullValue());
+        assertThat(imageRepository.find("1.png").isPresent(), is(false));
+        assertThat(imageRepository.countReferences("abc"), is(1));
+    }
+
+    @Test
+    public void unlinkLastReference() {
+        // arrange
+        final ImageRepository imageRepository = new ImageRepository();
+        imageRepository.link("1.png", "abc");
+
+        // act
+        final String releasedBlobId = imageRepository.unlink("1.png");
+
+        // assert
+        assertThat(releasedBlobId, is("abc"));
+        assertThat(imageRepository.countReferences("abc"), is(0));
+    }
+
+    @Test
+    public void unlinkUnknownName() {
+        // arrange
+        final ImageRepository imageRepository = new ImageRepository();
+
+        // act
+        final String releasedBlobId = imageRepository.unlink("1.png");
+
+        // assert
+        assertThat(releasedBlobId, nullValue());
+    }
+
+    @Test
+    public void referenceCountsRebuiltAfterDeserialization() throws IOException, ClassNotFoundException {
+        // arrange
+        final ImageRepository imageRepository = new ImageRepository();
+        imageRepository.link("1.png", "abc");
+        imageRepository.link("2.png", "abc");
+        imageRepository.link("3.png", "def");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(imageRepository);
+        }
+
+        // act
+        final ImageRepository restoredRepository;
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredRepository = (ImageRepository) in.readObject();
+        }
+
+        // assert
+        assertThat(restoredRepository.countReferences("abc"), is(2));
+        assertThat(restoredRepository.countReferences("def"), is(1));
+        assertThat(restoredRepository.find("3.png").get(), is("def"));
+    }
+
+}
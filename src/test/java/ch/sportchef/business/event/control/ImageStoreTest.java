@@ -0,0 +1,78 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.event.control;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ImageStoreTest {
+
+    private static String realUserHome;
+    private static File blobPath;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        realUserHome = System.getProperty("user.home");
+        final String tempUserHome = Files.createTempDirectory("sportchef-").toString();
+        System.setProperty("user.home", tempUserHome);
+        blobPath = new File(tempUserHome, "blobs");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.setProperty("user.home", realUserHome);
+    }
+
+    @Test
+    public void referenceCountsRebuiltAfterReopen() throws IOException {
+        // arrange
+        final byte[] data = new byte[1024];
+        new Random().nextBytes(data);
+        final ImageStore imageStore = new ImageStore(blobPath);
+        imageStore.open();
+        final String blobId = imageStore.store("1.png", data);
+        imageStore.copy("1.png", "2.png");
+        imageStore.close();
+
+        // act
+        final ImageStore reopenedImageStore = new ImageStore(blobPath);
+        reopenedImageStore.open();
+
+        // assert
+        try {
+            assertThat(reopenedImageStore.find("2.png").get(), is(blobId));
+            assertThat(reopenedImageStore.countReferences(blobId), is(2));
+            reopenedImageStore.delete("1.png");
+            assertThat(Files.exists(reopenedImageStore.getPath(blobId)), is(true));
+            reopenedImageStore.delete("2.png");
+            assertThat(Files.exists(reopenedImageStore.getPath(blobId)), is(false));
+        } finally {
+            reopenedImageStore.close();
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.business.mail.control;
+
+import ch.sportchef.business.configuration.control.ConfigurationService;
+import ch.sportchef.business.configuration.entity.Configuration;
+import com.codahale.metrics.MetricRegistry;
+import com.dumbster.smtp.ServerOptions;
+import com.dumbster.smtp.SmtpServer;
+import com.dumbster.smtp.SmtpServerFactory;
+import org.apache.commons.mail.EmailException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static java.lang.Boolean.FALSE;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MailServiceTest {
+
+    private static final int SMTP_PORT = 4445;
+    private static final String TEST_EMAIL = "john.doe@sportchef.ch";
+
+    private MetricRegistry metricRegistry;
+    private MailService mailService;
+    private SmtpServer smtpServer;
+
+    @BeforeEach
+    public void setup() {
+        final Configuration configurationMock = mock(Configuration.class);
+        when(configurationMock.getSMTPServer()).thenReturn("localhost");
+        when(configurationMock.getSMTPPort()).thenReturn(SMTP_PORT);
+        when(configurationMock.getSMTPUser()).thenReturn("test");
+        when(configurationMock.getSMTPPassword()).thenReturn("test");
+        when(configurationMock.getSMTPSSL()).thenReturn(FALSE);
+        when(configurationMock.getSMTPFrom()).thenReturn("noreply@sportchef.ch");
+        final ConfigurationService configurationServiceMock = mock(ConfigurationService.class);
+        when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+
+        metricRegistry = new MetricRegistry();
+        mailService = new MailService(configurationServiceMock, metricRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mailService.cleanupResources();
+        if (smtpServer != null) {
+            smtpServer.stop();
+        }
+    }
+
+    private void startSmtpServer() {
+        final ServerOptions smtpServerOptions = new ServerOptions();
+        smtpServerOptions.port = SMTP_PORT;
+        smtpServer = SmtpServerFactory.startServer(smtpServerOptions);
+    }
+
+    private static void waitFor(@NotNull final BooleanSupplier condition) {
+        final long timeout = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > timeout) {
+                throw new AssertionError("condition not met in time");
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private long getCount(@NotNull final String meter) {
+        return metricRegistry.meter(MetricRegistry.name(MailService.class, meter)).getCount();
+    }
+
+    @Test
+    public void sendMailInBackground() throws EmailException {
+        // arrange
+        startSmtpServer();
+
+        // act
+        mailService.sendMail(TEST_EMAIL, "Subject", "Message");
+
+        // assert
+        waitFor(() -> smtpServer.getEmailCount() == 1);
+        assertThat(smtpServer.getMessage(0).getFirstHeaderValue("To"), is(TEST_EMAIL));
+        assertThat(smtpServer.getMessage(0).getFirstHeaderValue("Subject"), is("Subject"));
+        waitFor(() -> getCount("sent") == 1);
+        assertThat(mailService.getQueueSize(), is(0));
+    }
+
+    @Test
+    public void sendManyMails() throws EmailException {
+        // arrange
+        startSmtpServer();
+
+        // act
+        for (int i = 0; i < 100; i++) {
+            mailService.sendMail(i + TEST_EMAIL, "Subject", "Message");
+        }
+
+        // assert
+        waitFor(() -> smtpServer.getEmailCount() == 100);
+        waitFor(() -> getCount("sent") == 100);
+        assertThat(getCount("failed"), is(0L));
+    }
+
+    @Test
+    public void sendMailRetriesWhenServerUnavailable() throws EmailException {
+        // arrange
+        mailService.sendMail(TEST_EMAIL, "Subject", "Message");
+        waitFor(() -> getCount("retried") >= 1);
+
+        // act
+        startSmtpServer();
+
+        // assert
+        waitFor(() -> smtpServer.getEmailCount() == 1);
+        assertThat(smtpServer.getMessage(0).getFirstHeaderValue("To"), is(TEST_EMAIL));
+    }
+
+    @Test
+    public void sendMailWithInvalidAddress() {
+        // act & assert
+        assertThrows(EmailException.class,
+                () -> mailService.sendMail("@test", "Subject", "Message"));
+        assertThat(mailService.getQueueSize(), is(0));
+    }
+
+}
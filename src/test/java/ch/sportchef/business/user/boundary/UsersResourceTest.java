@@ -17,20 +17,31 @@
  */
 package ch.sportchef.business.user.boundary;
 
+import ch.sportchef.business.ObjectMapperResolver;
+import ch.sportchef.business.authentication.entity.Role;
 import ch.sportchef.business.exception.ExpectationFailedException;
 import ch.sportchef.business.user.control.UserService;
 import ch.sportchef.business.user.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.ws.rs.core.Response.Status.CREATED;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.hamcrest.CoreMatchers.is;
@@ -42,6 +53,13 @@ import static org.mockito.Mockito.*;
 
 public class UsersResourceTest {
 
+    private static Providers createProvidersMock() {
+        final Providers providersMock = mock(Providers.class);
+        when(providersMock.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE))
+                .thenReturn(new ObjectMapperResolver());
+        return providersMock;
+    }
+
     private User createJohnDoe(@NotNull final Long userId) {
         return User.builder()
                 .userId(userId)
@@ -119,7 +137,7 @@ public class UsersResourceTest {
         final UsersResource usersResource = new UsersResource(userServiceMock);
 
         // act
-        final Response response = usersResource.findAll();
+        final Response response = usersResource.findAll(null, null, null, null, false, null);
         final List<User> list = (List<User>) response.getEntity();
         final User responseUser1 = list.get(0);
         final User responseUser2 = list.get(1);
@@ -131,6 +149,88 @@ public class UsersResourceTest {
         verify(userServiceMock, times(1)).findAll();
     }
 
+    @Test
+    public void findAllStreamed() throws IOException {
+        // arrange
+        final User user1 = createJohnDoe(1L);
+        final UserService userServiceMock = mock(UserService.class);
+        when(userServiceMock.streamAll())
+                .thenReturn(Stream.of(user1));
+        final UsersResource usersResource = new UsersResource(userServiceMock);
+
+        // act
+        final Response response = usersResource.findAll(null, null, null, null, true, createProvidersMock());
+        final StreamingOutput streamingOutput = (StreamingOutput) response.getEntity();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        streamingOutput.write(output);
+
+        // assert
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(new String(output.toByteArray(), UTF_8).contains("\"email\":\"john.doe@sportchef.ch\""), is(true));
+        verify(userServiceMock, times(1)).streamAll();
+        verify(userServiceMock, never()).findAll();
+    }
+
+    @Test
+    public void findAllStreamedWithPaging() {
+        // arrange
+        final UserService userServiceMock = mock(UserService.class);
+        final UsersResource usersResource = new UsersResource(userServiceMock);
+
+        // act & assert
+        assertThrows(BadRequestException.class,
+                () -> usersResource.findAll(null, null, null, 10, true, createProvidersMock()));
+        verify(userServiceMock, never()).streamAll();
+    }
+
+    @Test
+    public void findAllPaginated() {
+        // arrange
+        final User user2 = createJaneDoe(2L);
+        final List<User> users = new ArrayList<>();
+        users.add(user2);
+        final UserService userServiceMock = mock(UserService.class);
+        when(userServiceMock.findAll(Role.USER, "do", "1", 1))
+                .thenReturn(users);
+        when(userServiceMock.createCursor(user2, "do")).thenReturn("2");
+        final UsersResource usersResource = new UsersResource(userServiceMock);
+
+        // act
+        final Response response = usersResource.findAll("user", "do", "1", 1, false, null);
+        final List<User> list = (List<User>) response.getEntity();
+
+        // assert
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(list.size(), is(1));
+        assertThat(list.get(0), is(user2));
+        assertThat(response.getHeaderString("Next-Cursor"), is("2"));
+        verify(userServiceMock, never()).findAll();
+    }
+
+    @Test
+    public void findAllWithInvalidRole() {
+        // arrange
+        final UserService userServiceMock = mock(UserService.class);
+        final UsersResource usersResource = new UsersResource(userServiceMock);
+
+        // act & assert
+        assertThrows(BadRequestException.class,
+                () -> usersResource.findAll("superuser", null, null, null, false, null));
+    }
+
+    @Test
+    public void findAllWithInvalidCursor() {
+        // arrange
+        final UserService userServiceMock = mock(UserService.class);
+        when(userServiceMock.findAll(null, null, "invalid", 1))
+                .thenThrow(new IllegalArgumentException("invalid cursor 'invalid'"));
+        final UsersResource usersResource = new UsersResource(userServiceMock);
+
+        // act & assert
+        assertThrows(BadRequestException.class,
+                () -> usersResource.findAll(null, null, "invalid", 1, false, null));
+    }
+
     @Test
     public void find() {
         // arrange
@@ -1,10 +1,16 @@
 package ch.sportchef.business.user.control;
 
+import ch.sportchef.business.authentication.entity.Role;
 import ch.sportchef.business.exception.ExpectationFailedException;
 import ch.sportchef.business.user.entity.User;
 import org.junit.jupiter.api.Test;
 
 import javax.validation.constraints.NotNull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Optional;
@@ -102,6 +108,85 @@ public class UserRepositoryTest {
         assertThat(userOptional.isPresent(), is(false));
     }
 
+    @Test
+    public void findByEmailFound() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        final User user = createUser(userRepository);
+
+        // act
+        final Optional<User> userOptional = userRepository.findByEmail("John.Doe@SportChef.ch");
+
+        // assert
+        assertThat(userOptional.isPresent(), is(true));
+        assertThat(userOptional.get(), is(user));
+    }
+
+    @Test
+    public void findByEmailNotFound() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        createUser(userRepository);
+
+        // act
+        final Optional<User> userOptional = userRepository.findByEmail("jane.doe@sportchef.ch");
+
+        // assert
+        assertThat(userOptional.isPresent(), is(false));
+    }
+
+    @Test
+    public void findByEmailAfterEmailUpdate() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        final User createdUser = createUser(userRepository);
+        final User userToUpdate = createdUser.toBuilder()
+                .email("jane.doe@sportchef.ch")
+                .build();
+
+        // act
+        final User updatedUser = userRepository.update(userToUpdate);
+
+        // assert
+        assertThat(userRepository.findByEmail("john.doe@sportchef.ch").isPresent(), is(false));
+        assertThat(userRepository.findByEmail("jane.doe@sportchef.ch").get(), is(updatedUser));
+    }
+
+    @Test
+    public void updateEmailAddressUniqueTest() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        createUser(userRepository, "john.doe@sportchef.ch");
+        final User otherUser = createUser(userRepository, "jane.doe@sportchef.ch");
+        final User userToUpdate = otherUser.toBuilder()
+                .email("JOHN.DOE@sportchef.ch")
+                .build();
+
+        // act & assert
+        assertThrows(ExpectationFailedException.class,
+                () -> userRepository.update(userToUpdate));
+    }
+
+    @Test
+    public void findByEmailAfterRestore() throws IOException, ClassNotFoundException {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        final User user = createUser(userRepository);
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(snapshot)) {
+            out.writeObject(userRepository);
+        }
+
+        // act
+        final UserRepository restoredRepository;
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(snapshot.toByteArray()))) {
+            restoredRepository = (UserRepository) in.readObject();
+        }
+
+        // assert
+        assertThat(restoredRepository.findByEmail(user.getEmail()).get(), is(user));
+    }
+
     @Test
     public void findAllFound() {
         // arrange
@@ -119,6 +204,128 @@ public class UserRepositoryTest {
         assertThat(userList.get(1), is(user2));
     }
 
+    @Test
+    public void findAllPaginated() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        final User user1 = createUser(userRepository, "john.doe.1@sportchef.ch");
+        final User user2 = createUser(userRepository, "john.doe.2@sportchef.ch");
+        final User user3 = createUser(userRepository, "john.doe.3@sportchef.ch");
+
+        // act
+        final List<User> page1 = userRepository.findAll(null, null, null, 2);
+        final List<User> page2 = userRepository.findAll(null, null, UserRepository.createCursor(page1.get(1), null), 2);
+
+        // assert
+        assertThat(page1.size(), is(2));
+        assertThat(page1.get(0), is(user1));
+        assertThat(page1.get(1), is(user2));
+        assertThat(page2.size(), is(1));
+        assertThat(page2.get(0), is(user3));
+    }
+
+    @Test
+    public void findAllFilteredByRoleAndName() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        final User admin = userRepository.create(User.builder()
+                .firstName("Jane").lastName("Smith").email("jane.smith@sportchef.ch").role(Role.ADMIN).build());
+        final User user = userRepository.create(User.builder()
+                .firstName("Jack").lastName("Smithers").email("jack.smithers@sportchef.ch").role(Role.USER).build());
+        userRepository.create(User.builder()
+                .firstName("John").lastName("Doe").email("john.doe@sportchef.ch").role(Role.USER).build());
+
+        // act
+        final List<User> byName = userRepository.findAll(null, "SMITH", null, 10);
+        final List<User> byRoleAndName = userRepository.findAll(Role.USER, "smi", null, 10);
+        final List<User> byFirstName = userRepository.findAll(null, "ja", null, 10);
+        final List<User> byRole = userRepository.findAll(Role.ADMIN, null, null, 10);
+
+        // assert
+        assertThat(byName.size(), is(2));
+        assertThat(byName.get(0), is(admin));
+        assertThat(byName.get(1), is(user));
+        assertThat(byRoleAndName.size(), is(1));
+        assertThat(byRoleAndName.get(0), is(user));
+        assertThat(byFirstName.size(), is(2));
+        assertThat(byRole.size(), is(1));
+        assertThat(byRole.get(0), is(admin));
+    }
+
+    @Test
+    public void findAllFilteredByNamePaginated() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        final User anna = userRepository.create(User.builder()
+                .firstName("Anna").lastName("Annaberg").email("anna.annaberg@sportchef.ch").build());
+        final User annette = userRepository.create(User.builder()
+                .firstName("Annette").lastName("Doe").email("annette.doe@sportchef.ch").build());
+        final User ann = userRepository.create(User.builder()
+                .firstName("John").lastName("Ann").email("john.ann@sportchef.ch").build());
+        userRepository.create(User.builder()
+                .firstName("John").lastName("Doe").email("john.doe@sportchef.ch").build());
+
+        // act
+        final List<User> page1 = userRepository.findAll(null, "ann", null, 2);
+        final String cursor = UserRepository.createCursor(page1.get(1), "ann");
+        final List<User> page2 = userRepository.findAll(null, "ann", cursor, 2);
+
+        // assert
+        assertThat(page1.size(), is(2));
+        assertThat(page1.get(0), is(ann));
+        assertThat(page1.get(1), is(anna));
+        assertThat(page2.size(), is(1));
+        assertThat(page2.get(0), is(annette));
+    }
+
+    @Test
+    public void findAllFilteredByRareRoleAndNamePaginated() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        for (int i = 0; i < 10; i++) {
+            userRepository.create(User.builder()
+                    .firstName("Anne").lastName("User" + i).email("anne.user" + i + "@sportchef.ch")
+                    .role(Role.USER).build());
+        }
+        final User annette = userRepository.create(User.builder()
+                .firstName("Annette").lastName("Doe").email("annette.doe@sportchef.ch").role(Role.ADMIN).build());
+        final User ann = userRepository.create(User.builder()
+                .firstName("John").lastName("Ann").email("john.ann@sportchef.ch").role(Role.ADMIN).build());
+        final User anna = userRepository.create(User.builder()
+                .firstName("Anna").lastName("Annaberg").email("anna.annaberg@sportchef.ch").role(Role.ADMIN).build());
+        userRepository.create(User.builder()
+                .firstName("John").lastName("Doe").email("john.doe@sportchef.ch").role(Role.ADMIN).build());
+
+        // act
+        final List<User> page1 = userRepository.findAll(Role.ADMIN, "ann", null, 2);
+        final String cursor = UserRepository.createCursor(page1.get(1), "ann");
+        final List<User> page2 = userRepository.findAll(Role.ADMIN, "ann", cursor, 2);
+
+        // assert
+        assertThat(page1.size(), is(2));
+        assertThat(page1.get(0), is(ann));
+        assertThat(page1.get(1), is(anna));
+        assertThat(page2.size(), is(1));
+        assertThat(page2.get(0), is(annette));
+    }
+
+    @Test
+    public void findAllFilteredByNameAfterUpdate() {
+        // arrange
+        final UserRepository userRepository = new UserRepository();
+        final User createdUser = createUser(userRepository);
+        final User userToUpdate = createdUser.toBuilder()
+                .lastName("Smith")
+                .build();
+
+        // act
+        final User updatedUser = userRepository.update(userToUpdate);
+
+        // assert
+        assertThat(userRepository.findAll(null, "doe", null, 10).isEmpty(), is(true));
+        assertThat(userRepository.findAll(null, "smith", null, 10).get(0), is(updatedUser));
+    }
+
     @Test
     public void findAllNotFound() {
         // arrange
@@ -143,6 +350,7 @@ public class UserRepositoryTest {
 
         // assert
         assertThat(userRepository.findByUserId(user.getUserId()), is(Optional.empty()));
+        assertThat(userRepository.findByEmail(user.getEmail()), is(Optional.empty()));
     }
 
     @Test